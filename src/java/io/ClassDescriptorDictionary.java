@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.io;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dictionary of class descriptors shared by the two ends of a
+ * serialization channel.  An {@link ObjectOutputStream} created with a
+ * dictionary writes the descriptor of each registered class as its
+ * dictionary ID, serialVersionUID and a fingerprint of its name, flags and
+ * serializable fields, instead of its name and field descriptions; an
+ * {@link ObjectInputStream} created with an equivalent dictionary maps the
+ * ID back to the local class descriptor, and throws an
+ * {@link InvalidClassException} if the serialVersionUID or the fingerprint
+ * of the local class differs.  For streams
+ * that only carry a few objects each, the descriptors are otherwise most of
+ * the bytes written.
+ *
+ * <p>Both ends must register the same classes in the same order, since
+ * IDs are assigned in order of registration.  Classes which are not
+ * registered are written with their full descriptors, as usual.  A stream
+ * written with a dictionary can only be read by a stream created with an
+ * equivalent dictionary.  Streams using protocol version 1 write every
+ * descriptor in full, preceded by the ID -1 so that they can still be read
+ * by a stream created with a dictionary.  Dictionaries are not used by
+ * subclasses which override
+ * {@link ObjectOutputStream#writeClassDescriptor writeClassDescriptor} or
+ * {@link ObjectInputStream#readClassDescriptor readClassDescriptor}.
+ *
+ * <p>A dictionary is safe for use by multiple threads, and may be shared by
+ * any number of streams.
+ *
+ * @see ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorDictionary)
+ * @see ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorDictionary)
+ * @since 1.8
+ */
+public final class ClassDescriptorDictionary {
+
+    /** class -> ID map */
+    private final ConcurrentHashMap<Class<?>, Integer> ids =
+        new ConcurrentHashMap<>();
+    /** ID -> class descriptor map */
+    private volatile ObjectStreamClass[] descs = new ObjectStreamClass[0];
+    /** ID -> class descriptor fingerprint map; never shorter than descs */
+    private volatile long[] fingerprints = new long[0];
+
+    /**
+     * Creates a dictionary of the given classes, registered in order.
+     *
+     * @param classes the classes to register
+     * @throws IllegalArgumentException if any of the classes is not
+     *         serializable, or is a proxy class
+     * @throws NullPointerException if any of the classes is null
+     */
+    public ClassDescriptorDictionary(Class<?>... classes) {
+        for (Class<?> cl : classes) {
+            register(cl);
+        }
+    }
+
+    /**
+     * Registers the given class, if it is not already registered, and
+     * returns its ID.
+     *
+     * @param cl the class to register
+     * @return the ID of the class
+     * @throws IllegalArgumentException if the class is not serializable, or
+     *         is a proxy class
+     * @throws NullPointerException if {@code cl} is null
+     */
+    public synchronized int register(Class<?> cl) {
+        Integer id = ids.get(cl);
+        if (id != null) {
+            return id;
+        }
+        ObjectStreamClass desc = ObjectStreamClass.lookup(cl);
+        if (desc == null) {
+            throw new IllegalArgumentException(
+                cl.getName() + " is not serializable");
+        }
+        if (Proxy.isProxyClass(cl)) {
+            throw new IllegalArgumentException(
+                cl.getName() + " is a proxy class");
+        }
+        int n = descs.length;
+        long[] newFingerprints = Arrays.copyOf(fingerprints, n + 1);
+        newFingerprints[n] = fingerprint(desc);
+        fingerprints = newFingerprints;
+        ObjectStreamClass[] newDescs = Arrays.copyOf(descs, n + 1);
+        newDescs[n] = desc;
+        descs = newDescs;
+        ids.put(cl, n);
+        return n;
+    }
+
+    /**
+     * Returns the number of registered classes.
+     *
+     * @return the number of registered classes
+     */
+    public int size() {
+        return descs.length;
+    }
+
+    /**
+     * Returns the descriptor of the class registered with the given ID.
+     *
+     * @param id the ID
+     * @return the class descriptor
+     * @throws IndexOutOfBoundsException if no class is registered with the
+     *         given ID
+     */
+    public ObjectStreamClass get(int id) {
+        return descs[id];
+    }
+
+    /**
+     * Returns the fingerprint of the class registered with the given ID.
+     */
+    long fingerprint(int id) {
+        return fingerprints[id];
+    }
+
+    /**
+     * Computes a fingerprint of the parts of the given descriptor which the
+     * full descriptor would carry besides its serialVersionUID: the class
+     * name, its serialization flags, and the names and types of its
+     * serializable fields.
+     */
+    private static long fingerprint(ObjectStreamClass desc) {
+        long h = hash(0, desc.getName());
+        int flags = (desc.hasWriteObjectData() ? 1 : 0) |
+                    (desc.isExternalizable() ? 2 : 0) |
+                    (desc.isEnum() ? 4 : 0);
+        h = h * 31 + flags;
+        for (ObjectStreamField f : desc.getFields(false)) {
+            h = hash(h, f.getName());
+            h = hash(h, f.getSignature());
+        }
+        return h;
+    }
+
+    private static long hash(long h, String s) {
+        h = h * 31 + s.length();
+        for (int i = 0; i < s.length(); i++) {
+            h = h * 0x100000001b3L ^ s.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * Returns the ID of the class of the given descriptor, or -1 if it is not
+     * registered.
+     */
+    int indexOf(ObjectStreamClass desc) {
+        Class<?> cl = desc.forClass();
+        if (cl == null) {
+            return -1;
+        }
+        Integer id = ids.get(cl);
+        return (id != null) ? id : -1;
+    }
+}
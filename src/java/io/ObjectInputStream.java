@@ -317,6 +317,9 @@ public class ObjectInputStream
      */
     private ObjectInputFilter serialFilter;
 
+    /** shared class descriptor dictionary; may be null */
+    private final ClassDescriptorDictionary dictionary;
+
     /**
      * Creates an ObjectInputStream that reads from the specified InputStream.
      * A serialization stream header is read from the stream and verified.
@@ -340,12 +343,39 @@ public class ObjectInputStream
      * @see     ObjectOutputStream#ObjectOutputStream(OutputStream)
      */
     public ObjectInputStream(InputStream in) throws IOException {
+        this(in, null);
+    }
+
+    /**
+     * Creates an ObjectInputStream that reads from the specified
+     * InputStream, which was written by an ObjectOutputStream created with an
+     * equivalent class descriptor dictionary.  Class descriptors written as
+     * dictionary IDs are mapped to the descriptors of the local classes
+     * registered with those IDs.  This constructor otherwise behaves as
+     * {@link #ObjectInputStream(InputStream)}.
+     *
+     * @param   in input stream to read from
+     * @param   dictionary the shared class descriptor dictionary, or
+     *          <code>null</code> if all descriptors are written in full
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if an I/O error occurs while reading stream header
+     * @throws  SecurityException if untrusted subclass illegally overrides
+     *          security-sensitive methods
+     * @throws  NullPointerException if <code>in</code> is <code>null</code>
+     * @since   1.8
+     * @see     ObjectOutputStream#ObjectOutputStream(OutputStream, ClassDescriptorDictionary)
+     */
+    public ObjectInputStream(InputStream in,
+                             ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
         verifySubclass();
         bin = new BlockDataInputStream(in);
         handles = new HandleTable(10);
         vlist = new ValidationList();
         serialFilter = ObjectInputFilter.Config.getSerialFilter();
         enableOverride = false;
+        this.dictionary = dictionary;
         readStreamHeader();
         bin.setBlockDataMode(true);
     }
@@ -377,6 +407,7 @@ public class ObjectInputStream
         vlist = null;
         serialFilter = ObjectInputFilter.Config.getSerialFilter();
         enableOverride = true;
+        dictionary = null;
     }
 
     /**
@@ -866,7 +897,9 @@ public class ObjectInputStream
      * in non-standard formats (by subclasses of ObjectOutputStream which have
      * overridden the <code>writeClassDescriptor</code> method).  By default,
      * this method reads class descriptors according to the format defined in
-     * the Object Serialization specification.
+     * the Object Serialization specification, or as written by an
+     * ObjectOutputStream created with a {@link ClassDescriptorDictionary} if
+     * this stream was created with one.
      *
      * @return  the class descriptor read
      * @throws  IOException If an I/O error has occurred.
@@ -878,6 +911,34 @@ public class ObjectInputStream
     protected ObjectStreamClass readClassDescriptor()
         throws IOException, ClassNotFoundException
     {
+        if (dictionary != null) {
+            int id = bin.readInt();
+            if (id >= 0) {
+                if (id >= dictionary.size()) {
+                    throw new StreamCorruptedException(
+                        "invalid class descriptor id " + id);
+                }
+                ObjectStreamClass localDesc = dictionary.get(id);
+                long suid = bin.readLong();
+                if (suid != localDesc.getSerialVersionUID()) {
+                    throw new InvalidClassException(localDesc.getName(),
+                        "local class incompatible: " +
+                        "stream classdesc serialVersionUID = " + suid +
+                        ", local class serialVersionUID = " +
+                        localDesc.getSerialVersionUID());
+                }
+                if (bin.readLong() != dictionary.fingerprint(id)) {
+                    throw new InvalidClassException(localDesc.getName(),
+                        "local class incompatible: " +
+                        "stream classdesc name, flags or fields differ " +
+                        "from those of dictionary ID " + id);
+                }
+                return localDesc;
+            } else if (id != -1) {
+                throw new StreamCorruptedException(
+                    "invalid class descriptor id " + id);
+            }
+        }
         ObjectStreamClass desc = new ObjectStreamClass();
         desc.readNonProxy(this);
         return desc;
@@ -928,6 +989,46 @@ public class ObjectInputStream
         return bin.available();
     }
 
+    /**
+     * Redirects this stream to the given InputStream, as if this stream had
+     * been replaced with a new ObjectInputStream reading from
+     * <code>in</code>.  All objects previously read are forgotten, any
+     * unread data of the previous stream is discarded, and a new stream
+     * header is read and verified, but the buffers and tables of this stream
+     * are reused, which makes this cheaper than creating a new stream for
+     * each of a series of short messages.  The previous underlying stream is
+     * not closed.  The stream may be reused after it has been closed.
+     *
+     * <p>The number of object references and the number of bytes reported
+     * to the serialization filter are not reset, but count everything read
+     * since this stream was created, so that limits on them bound the total
+     * work done through a reused stream.
+     *
+     * @param   in input stream to read from
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if invoked while deserializing an object, or if an
+     *          I/O error occurs while reading the stream header
+     * @throws  NullPointerException if <code>in</code> is <code>null</code>
+     * @throws  UnsupportedOperationException if this stream was created by
+     *          the protected no-arg constructor
+     * @since   1.8
+     * @see     ObjectOutputStream#reuse(OutputStream)
+     */
+    public void reuse(InputStream in) throws IOException {
+        Objects.requireNonNull(in);
+        if (enableOverride) {
+            throw new UnsupportedOperationException();
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        bin.setInputStream(in);
+        clear();
+        closed = false;
+        readStreamHeader();
+        bin.setBlockDataMode(true);
+    }
+
     /**
      * Closes the input stream. Must be called to release any resources
      * associated with the stream.
@@ -2560,7 +2661,7 @@ public class ObjectInputStream
     private static class PeekInputStream extends InputStream {
 
         /** underlying stream */
-        private final InputStream in;
+        private InputStream in;
         /** peeked byte */
         private int peekb = -1;
         /** total bytes read from the stream */
@@ -2573,6 +2674,15 @@ public class ObjectInputStream
             this.in = in;
         }
 
+        /**
+         * Redirects this stream to the given underlying stream, discarding
+         * any peeked byte.  The count of bytes read is kept.
+         */
+        void setInputStream(InputStream in) {
+            this.in = in;
+            peekb = -1;
+        }
+
         /**
          * Peeks at next byte value in stream.  Similar to read(), except
          * that it does not consume the read value.
@@ -2707,6 +2817,18 @@ public class ObjectInputStream
             din = new DataInputStream(this);
         }
 
+        /**
+         * Redirects this stream to the given underlying stream, discarding
+         * any buffered data.  Block data mode is turned off.
+         */
+        void setInputStream(InputStream in) {
+            this.in.setInputStream(in);
+            blkmode = false;
+            pos = 0;
+            end = -1;
+            unread = 0;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -32,6 +32,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import static java.io.ObjectStreamClass.processQueue;
@@ -205,6 +206,9 @@ public class ObjectOutputStream
     /** custom storage for debug trace info */
     private final DebugTraceInfoStack debugInfoStack;
 
+    /** shared class descriptor dictionary; may be null */
+    private final ClassDescriptorDictionary dictionary;
+
     /**
      * value of "sun.io.serialization.extendedDebugInfo" property,
      * as true or false for extended information about exception's place
@@ -238,11 +242,37 @@ public class ObjectOutputStream
      * @see     ObjectInputStream#ObjectInputStream(InputStream)
      */
     public ObjectOutputStream(OutputStream out) throws IOException {
+        this(out, null);
+    }
+
+    /**
+     * Creates an ObjectOutputStream that writes to the specified
+     * OutputStream, and writes the descriptors of classes registered in the
+     * given dictionary as their dictionary IDs.  The stream can only be read
+     * by an ObjectInputStream created with an equivalent dictionary.  This
+     * constructor otherwise behaves as {@link
+     * #ObjectOutputStream(OutputStream)}.
+     *
+     * @param   out output stream to write to
+     * @param   dictionary the shared class descriptor dictionary, or
+     *          <code>null</code> to write all descriptors in full
+     * @throws  IOException if an I/O error occurs while writing stream header
+     * @throws  SecurityException if untrusted subclass illegally overrides
+     *          security-sensitive methods
+     * @throws  NullPointerException if <code>out</code> is <code>null</code>
+     * @since   1.8
+     * @see     ObjectInputStream#ObjectInputStream(InputStream, ClassDescriptorDictionary)
+     */
+    public ObjectOutputStream(OutputStream out,
+                              ClassDescriptorDictionary dictionary)
+        throws IOException
+    {
         verifySubclass();
         bout = new BlockDataOutputStream(out);
         handles = new HandleTable(10, (float) 3.00);
         subs = new ReplaceTable(10, (float) 3.00);
         enableOverride = false;
+        this.dictionary = dictionary;
         writeStreamHeader();
         bout.setBlockDataMode(true);
         if (extendedDebugInfo) {
@@ -279,6 +309,7 @@ public class ObjectOutputStream
         subs = null;
         enableOverride = true;
         debugInfoStack = null;
+        dictionary = null;
     }
 
     /**
@@ -503,6 +534,40 @@ public class ObjectOutputStream
         bout.setBlockDataMode(true);
     }
 
+    /**
+     * Flushes this stream and redirects it to the given OutputStream, as if
+     * this stream had been replaced with a new ObjectOutputStream writing to
+     * <code>out</code>.  All objects previously written are forgotten and a
+     * new stream header is written, but the buffers and tables of this stream
+     * are reused, which makes this cheaper than creating a new stream for
+     * each of a series of short messages.  The previous underlying stream is
+     * flushed but not closed.
+     *
+     * @param   out output stream to write to
+     * @throws  IOException if invoked while serializing an object, or if an
+     *          I/O error occurs while flushing or writing the stream header
+     * @throws  NullPointerException if <code>out</code> is <code>null</code>
+     * @throws  UnsupportedOperationException if this stream was created by
+     *          the protected no-arg constructor
+     * @since   1.8
+     * @see     ObjectInputStream#reuse(InputStream)
+     */
+    public void reuse(OutputStream out) throws IOException {
+        Objects.requireNonNull(out);
+        if (enableOverride) {
+            throw new UnsupportedOperationException();
+        }
+        if (depth != 0) {
+            throw new IOException("stream active");
+        }
+        bout.setBlockDataMode(false);
+        bout.flush();
+        bout.setOutputStream(out);
+        clear();
+        writeStreamHeader();
+        bout.setBlockDataMode(true);
+    }
+
     /**
      * Subclasses may implement this method to allow class data to be stored in
      * the stream. By default this method does nothing.  The corresponding
@@ -646,7 +711,11 @@ public class ObjectOutputStream
      * <code>readClassDescriptor</code>, should then be overridden to
      * reconstitute the class descriptor from its custom stream representation.
      * By default, this method writes class descriptors according to the format
-     * defined in the Object Serialization specification.
+     * defined in the Object Serialization specification, unless this stream
+     * was created with a {@link ClassDescriptorDictionary}, in which case the
+     * descriptor is preceded by its dictionary ID, or -1 if its class is not
+     * registered, and descriptors of registered classes are replaced by their
+     * serialVersionUID and a fingerprint of their name, flags and fields.
      *
      * <p>Note that this method will only be called if the ObjectOutputStream
      * is not using the old serialization stream format (set by calling
@@ -665,6 +734,16 @@ public class ObjectOutputStream
     protected void writeClassDescriptor(ObjectStreamClass desc)
         throws IOException
     {
+        if (dictionary != null) {
+            // dictionary ID, or -1 if the full descriptor follows
+            int id = dictionary.indexOf(desc);
+            bout.writeInt(id);
+            if (id >= 0) {
+                bout.writeLong(desc.getSerialVersionUID());
+                bout.writeLong(dictionary.fingerprint(id));
+                return;
+            }
+        }
         desc.writeNonProxy(this);
     }
 
@@ -1276,7 +1355,12 @@ public class ObjectOutputStream
         handles.assign(unshared ? null : desc);
 
         if (protocol == PROTOCOL_VERSION_1) {
-            // do not invoke class descriptor write hook with old protocol
+            // do not invoke class descriptor write hook with old protocol;
+            // the full descriptor is written, but readers with a dictionary
+            // still expect an ID in front of it
+            if (dictionary != null) {
+                bout.writeInt(-1);
+            }
             desc.writeNonProxy(this);
         } else {
             writeClassDescriptor(desc);
@@ -1739,8 +1823,13 @@ public class ObjectOutputStream
     private static class BlockDataOutputStream
         extends OutputStream implements DataOutput
     {
-        /** maximum data block length */
-        private static final int MAX_BLOCK_SIZE = 1024;
+        /**
+         * maximum data block length, from the "jdk.serialBlockSize" property.
+         * Blocks longer than 255 bytes are written with a TC_BLOCKDATALONG
+         * header, which every reader accepts, so a larger size only reduces
+         * the number of headers and writes to the underlying stream.
+         */
+        private static final int MAX_BLOCK_SIZE = blockSize();
         /** maximum data block header length */
         private static final int MAX_HEADER_SIZE = 5;
         /** (tunable) length of char buffer (for writing strings) */
@@ -1759,7 +1848,7 @@ public class ObjectOutputStream
         private int pos = 0;
 
         /** underlying output stream */
-        private final OutputStream out;
+        private OutputStream out;
         /** loopback stream (for data writes that span data blocks) */
         private final DataOutputStream dout;
 
@@ -1772,6 +1861,25 @@ public class ObjectOutputStream
             dout = new DataOutputStream(this);
         }
 
+        /**
+         * Returns the value of the "jdk.serialBlockSize" property, clamped to
+         * [1024, 1M], or 1024 if it is unset or invalid.
+         */
+        private static int blockSize() {
+            int size = java.security.AccessController.doPrivileged(
+                new sun.security.action.GetIntegerAction(
+                    "jdk.serialBlockSize", 1024)).intValue();
+            return Math.max(1024, Math.min(size, 1 << 20));
+        }
+
+        /**
+         * Redirects output to the given stream.  Assumes that block data
+         * mode is off and that the buffer has been drained.
+         */
+        void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
         /**
          * Sets block data mode to the given mode (true == on, false == off)
          * and returns the previous mode value.  If the new mode is the same as
@@ -2254,6 +2362,8 @@ public class ObjectOutputStream
         private int[] next;
         /* maps handle value -> associated object */
         private Object[] objs;
+        /* maps handle value -> hash of associated object */
+        private int[] hashes;
 
         /**
          * Creates new HandleTable with given capacity and load factor.
@@ -2263,6 +2373,7 @@ public class ObjectOutputStream
             spine = new int[initialCapacity];
             next = new int[initialCapacity];
             objs = new Object[initialCapacity];
+            hashes = new int[initialCapacity];
             threshold = (int) (initialCapacity * loadFactor);
             clear();
         }
@@ -2320,23 +2431,31 @@ public class ObjectOutputStream
          * is large enough to accommodate new mapping.
          */
         private void insert(Object obj, int handle) {
-            int index = hash(obj) % spine.length;
+            int h = hash(obj);
+            int index = h % spine.length;
             objs[handle] = obj;
+            hashes[handle] = h;
             next[handle] = spine[index];
             spine[index] = handle;
         }
 
         /**
          * Expands the hash "spine" -- equivalent to increasing the number of
-         * buckets in a conventional hash table.
+         * buckets in a conventional hash table.  The entries are relinked
+         * using their recorded hashes, without rehashing the objects.
          */
         private void growSpine() {
-            spine = new int[(spine.length << 1) + 1];
+            int[] spine = new int[(this.spine.length << 1) + 1];
+            int[] next = this.next;
+            int[] hashes = this.hashes;
             threshold = (int) (spine.length * loadFactor);
             Arrays.fill(spine, -1);
             for (int i = 0; i < size; i++) {
-                insert(objs[i], i);
+                int index = hashes[i] % spine.length;
+                next[i] = spine[index];
+                spine[index] = i;
             }
+            this.spine = spine;
         }
 
         /**
@@ -2351,6 +2470,10 @@ public class ObjectOutputStream
             Object[] newObjs = new Object[newLength];
             System.arraycopy(objs, 0, newObjs, 0, size);
             objs = newObjs;
+
+            int[] newHashes = new int[newLength];
+            System.arraycopy(hashes, 0, newHashes, 0, size);
+            hashes = newHashes;
         }
 
         /**
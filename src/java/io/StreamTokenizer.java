@@ -26,6 +26,8 @@
 package java.io;
 
 import java.util.Arrays;
+import java.util.Locale;
+import java.util.StringInterner;
 
 /**
  * The {@code StreamTokenizer} class takes an input stream and
@@ -84,6 +86,7 @@ public class StreamTokenizer {
 
     private boolean pushedBack;
     private boolean forceLower;
+    private StringInterner interner;
     /** The line number of the last token read */
     private int LINENO = 1;
 
@@ -494,6 +497,31 @@ public class StreamTokenizer {
         forceLower = fl;
     }
 
+    /**
+     * Specifies a pool through which the {@code sval} field of word and
+     * quoted string tokens is canonicalized.  If the argument is not
+     * {@code null}, equal word and string tokens returned by the
+     * {@code nextToken} method share a single {@code String} instance
+     * held by the pool, and no new string is allocated for a token that
+     * the pool already holds.  The exception is a word token in
+     * {@linkplain #lowerCaseMode lowercase mode} that cannot be lowercased
+     * by ASCII case mapping alone: one that contains non-ASCII characters,
+     * or ASCII upper case letters while the default locale is Turkish or
+     * Azerbaijani.  Such a token is lowercased into a new string before it
+     * is looked up in the pool.
+     * <p>
+     * If the argument is {@code null}, a new string is created for each
+     * token, which is the default.
+     *
+     * @param   interner   the pool to intern tokens in, or {@code null}.
+     * @see     java.io.StreamTokenizer#sval
+     * @see     java.util.StringInterner
+     * @since   1.8
+     */
+    public void internTokens(StringInterner interner) {
+        this.interner = interner;
+    }
+
     /** Read the next character */
     private int read() throws IOException {
         if (reader != null)
@@ -504,6 +532,34 @@ public class StreamTokenizer {
             throw new IllegalStateException();
     }
 
+    /**
+     * Lowercases the first {@code len} characters of {@code buf} in place,
+     * if that gives the same result as {@code String.toLowerCase()}, which
+     * is the case when they are all ASCII and upper case letters are not
+     * mapped specially by the default locale.  Returns {@code false},
+     * leaving the buffer unchanged, otherwise.
+     */
+    private static boolean toLowerCaseASCII(char[] buf, int len) {
+        boolean upper = false;
+        for (int i = 0; i < len; i++) {
+            char ch = buf[i];
+            if (ch >= 0x80)
+                return false;
+            upper |= (ch >= 'A' && ch <= 'Z');
+        }
+        if (!upper)
+            return true;
+        String lang = Locale.getDefault().getLanguage();
+        if (lang == "tr" || lang == "az")   // interned by Locale
+            return false;
+        for (int i = 0; i < len; i++) {
+            char ch = buf[i];
+            if (ch >= 'A' && ch <= 'Z')
+                buf[i] = (char) (ch + ('a' - 'A'));
+        }
+        return true;
+    }
+
     /**
      * Parses the next token from the input stream of this tokenizer.
      * The type of the next token is returned in the {@code ttype}
@@ -626,9 +682,18 @@ public class StreamTokenizer {
                 ctype = c < 0 ? CT_WHITESPACE : c < 256 ? ct[c] : CT_ALPHA;
             } while ((ctype & (CT_ALPHA | CT_DIGIT)) != 0);
             peekc = c;
-            sval = String.copyValueOf(buf, 0, i);
-            if (forceLower)
-                sval = sval.toLowerCase();
+            if (forceLower) {
+                if (interner != null && toLowerCaseASCII(buf, i)) {
+                    sval = interner.intern(buf, 0, i);
+                } else {
+                    sval = String.copyValueOf(buf, 0, i).toLowerCase();
+                    if (interner != null)
+                        sval = interner.intern(sval);
+                }
+            } else {
+                sval = (interner != null) ? interner.intern(buf, 0, i)
+                                          : String.copyValueOf(buf, 0, i);
+            }
             return ttype = TT_WORD;
         }
 
@@ -699,7 +764,8 @@ public class StreamTokenizer {
              */
             peekc = (d == ttype) ? NEED_CHAR : d;
 
-            sval = String.copyValueOf(buf, 0, i);
+            sval = (interner != null) ? interner.intern(buf, 0, i)
+                                      : String.copyValueOf(buf, 0, i);
             return ttype;
         }
 
@@ -2460,6 +2460,10 @@ public final class Class<T> implements java.io.Serializable,
     // Caches for certain reflective results
     private static boolean useCaches = true;
 
+    // Whether cached reflection data is retained strongly, rather than
+    // softly, so that it is never cleared and recomputed
+    private static boolean retainCaches = false;
+
     // reflection data that might get invalidated when JVM TI RedefineClasses() is called
     private static class ReflectionData<T> {
         volatile Field[] declaredFields;
@@ -2510,7 +2514,9 @@ public final class Class<T> implements java.io.Serializable,
         while (true) {
             ReflectionData<T> rd = new ReflectionData<>(classRedefinedCount);
             // try to CAS it...
-            if (Atomic.casReflectionData(this, oldReflectionData, new SoftReference<>(rd))) {
+            SoftReference<ReflectionData<T>> ref = retainCaches
+                ? new RetainedReference<>(rd) : new SoftReference<>(rd);
+            if (Atomic.casReflectionData(this, oldReflectionData, ref)) {
                 return rd;
             }
             // else retry
@@ -2524,6 +2530,18 @@ public final class Class<T> implements java.io.Serializable,
         }
     }
 
+    // SoftReference that also holds its referent strongly, so that the
+    // referent never becomes softly reachable and is never cleared
+    private static final class RetainedReference<T> extends SoftReference<T> {
+        @SuppressWarnings("unused")
+        private final T referent;
+
+        RetainedReference(T referent) {
+            super(referent);
+            this.referent = referent;
+        }
+    }
+
     // Generic signature handling
     private native String getGenericSignature0();
 
@@ -3276,6 +3294,10 @@ public final class Class<T> implements java.io.Serializable,
                     if (val != null && val.equals("true")) {
                         useCaches = false;
                     }
+                    val = System.getProperty("sun.reflect.retainCaches");
+                    if (val != null && val.equals("true")) {
+                        retainCaches = true;
+                    }
 
                     initted = true;
                     return null;
@@ -27,6 +27,8 @@ package java.lang;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.File;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
@@ -51,6 +53,8 @@ import java.util.Vector;
 import java.util.Hashtable;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import sun.misc.CompoundEnumeration;
 import sun.misc.Resource;
 import sun.misc.URLClassPath;
@@ -233,11 +237,16 @@ public abstract class ClassLoader {
         }
     }
 
-    // Maps class name to the corresponding lock object when the current
-    // class loader is parallel capable.
+    // Maps class name to a LockRef to the corresponding lock object when the
+    // current class loader is parallel capable. Stale references are queued
+    // on lockQueue and their entries removed on the next lookup.
     // Note: VM also uses this field to decide if the current class loader
     // is parallel capable and the appropriate lock object for class loading.
     private final ConcurrentHashMap<String, Object> parallelLockMap;
+    private final ReferenceQueue<Object> lockQueue;
+
+    // Class loading statistics of this loader, see getClassLoadingStatistics
+    private final Counters counters = new Counters();
 
     // Hashtable that maps packages to certs
     private final Map <String, Certificate[]> package2certs;
@@ -280,6 +289,7 @@ public abstract class ClassLoader {
         this.parent = parent;
         if (ParallelLoaders.isRegistered(this.getClass())) {
             parallelLockMap = new ConcurrentHashMap<>();
+            lockQueue = new ReferenceQueue<>();
             package2certs = new ConcurrentHashMap<>();
             domains =
                 Collections.synchronizedSet(new HashSet<ProtectionDomain>());
@@ -287,6 +297,7 @@ public abstract class ClassLoader {
         } else {
             // no finer-grained lock; lock on the classloader instance
             parallelLockMap = null;
+            lockQueue = null;
             package2certs = new Hashtable<>();
             domains = new HashSet<>();
             assertionLock = this;
@@ -401,38 +412,70 @@ public abstract class ClassLoader {
     protected Class<?> loadClass(String name, boolean resolve)
         throws ClassNotFoundException
     {
-        synchronized (getClassLoadingLock(name)) {
-            // First, check if the class has already been loaded
+        if (parallelLockMap != null) {
+            // A class that is already loaded needs no lock, which saves a
+            // parallel capable loader from recreating the lock once it has
+            // been collected
             Class<?> c = findLoadedClass(name);
-            if (c == null) {
-                long t0 = System.nanoTime();
-                try {
-                    if (parent != null) {
-                        c = parent.loadClass(name, false);
-                    } else {
-                        c = findBootstrapClassOrNull(name);
-                    }
-                } catch (ClassNotFoundException e) {
-                    // ClassNotFoundException thrown if class not found
-                    // from the non-null parent class loader
+            if (c != null) {
+                if (resolve) {
+                    resolveClass(c);
                 }
-
+                return c;
+            }
+        }
+        Object lock = getClassLoadingLock(name);
+        ClassLoadingLock counted = (lock instanceof ClassLoadingLock)
+            ? (ClassLoadingLock) lock : null;
+        // Another user of the lock means this thread may have to wait
+        long w0 = (counted != null && counted.users.getAndIncrement() > 0)
+            ? System.nanoTime() : -1L;
+        try {
+            synchronized (lock) {
+                if (w0 != -1L) {
+                    counters.lockWaits.increment();
+                    counters.lockWaitTime.add(System.nanoTime() - w0);
+                }
+                // First, check if the class has already been loaded
+                Class<?> c = findLoadedClass(name);
                 if (c == null) {
-                    // If still not found, then invoke findClass in order
-                    // to find the class.
-                    long t1 = System.nanoTime();
-                    c = findClass(name);
-
-                    // this is the defining class loader; record the stats
-                    sun.misc.PerfCounter.getParentDelegationTime().addTime(t1 - t0);
-                    sun.misc.PerfCounter.getFindClassTime().addElapsedTimeFrom(t1);
-                    sun.misc.PerfCounter.getFindClasses().increment();
+                    long t0 = System.nanoTime();
+                    try {
+                        if (parent != null) {
+                            c = parent.loadClass(name, false);
+                        } else {
+                            c = findBootstrapClassOrNull(name);
+                        }
+                    } catch (ClassNotFoundException e) {
+                        // ClassNotFoundException thrown if class not found
+                        // from the non-null parent class loader
+                    }
+
+                    if (c == null) {
+                        // If still not found, then invoke findClass in order
+                        // to find the class.
+                        long t1 = System.nanoTime();
+                        try {
+                            c = findClass(name);
+                        } catch (ClassNotFoundException e) {
+                            counters.findClassMisses.increment();
+                            throw e;
+                        }
+
+                        // this is the defining class loader; record the stats
+                        sun.misc.PerfCounter.getParentDelegationTime().addTime(t1 - t0);
+                        sun.misc.PerfCounter.getFindClassTime().addElapsedTimeFrom(t1);
+                        sun.misc.PerfCounter.getFindClasses().increment();
+                    }
                 }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
             }
-            if (resolve) {
-                resolveClass(c);
-            }
-            return c;
+        } finally {
+            if (counted != null)
+                counted.users.decrementAndGet();
         }
     }
 
@@ -444,6 +487,11 @@ public abstract class ClassLoader {
      * with the specified class name. Otherwise, the method returns this
      * ClassLoader object.
      *
+     * <p> The association between a class name and its lock object is only
+     * retained while the lock object is reachable, so that a parallel
+     * capable class loader does not accumulate one lock object for every
+     * class name it has ever been asked to load.
+     *
      * @param  className
      *         The name of the to-be-loaded class
      *
@@ -459,15 +507,57 @@ public abstract class ClassLoader {
     protected Object getClassLoadingLock(String className) {
         Object lock = this;
         if (parallelLockMap != null) {
-            Object newLock = new Object();
-            lock = parallelLockMap.putIfAbsent(className, newLock);
-            if (lock == null) {
-                lock = newLock;
+            for (;;) {
+                LockRef ref = (LockRef) parallelLockMap.get(className);
+                if (ref != null && (lock = ref.get()) != null)
+                    break;
+                // A cleared entry is replaced in place, so that the stale
+                // reference expunged below no longer matches it
+                lock = new ClassLoadingLock();
+                LockRef newRef = new LockRef(className, lock, lockQueue);
+                if (ref == null ? parallelLockMap.putIfAbsent(className, newRef) == null
+                                : parallelLockMap.replace(className, ref, newRef))
+                    break;
             }
+            expungeStaleLocks();
         }
         return lock;
     }
 
+    /*
+     * Removes the entries of locks that are no longer in use from
+     * parallelLockMap.  A lock can only be in use while some thread holds a
+     * reference to it, so a lock that has been collected can safely be
+     * replaced by a new one for the same class name.
+     */
+    private void expungeStaleLocks() {
+        LockRef ref;
+        while ((ref = (LockRef) lockQueue.poll()) != null)
+            parallelLockMap.remove(ref.name, ref);
+    }
+
+    /*
+     * Lock object for loading a class in a parallel capable loader.  The
+     * number of threads using it lets loadClass count the times it had to
+     * wait for another thread loading the same class.
+     */
+    private static final class ClassLoadingLock {
+        final AtomicInteger users = new AtomicInteger();
+    }
+
+    /*
+     * Weak reference from parallelLockMap to a class loading lock, so that
+     * the map only retains locks for classes currently being loaded.
+     */
+    private static final class LockRef extends WeakReference<Object> {
+        final String name;
+
+        LockRef(String name, Object lock, ReferenceQueue<Object> queue) {
+            super(lock, queue);
+            this.name = name;
+        }
+    }
+
     // This method is invoked by the virtual machine to load a class.
     private Class<?> loadClassInternal(String name)
         throws ClassNotFoundException
@@ -758,10 +848,12 @@ public abstract class ClassLoader {
                                          ProtectionDomain protectionDomain)
         throws ClassFormatError
     {
+        long t0 = System.nanoTime();
         protectionDomain = preDefineClass(name, protectionDomain);
         String source = defineClassSourceLocation(protectionDomain);
         Class<?> c = defineClass1(name, b, off, len, protectionDomain, source);
         postDefineClass(c, protectionDomain);
+        counters.defined(t0);
         return c;
     }
 
@@ -847,10 +939,12 @@ public abstract class ClassLoader {
             }
         }
 
+        long t0 = System.nanoTime();
         protectionDomain = preDefineClass(name, protectionDomain);
         String source = defineClassSourceLocation(protectionDomain);
         Class<?> c = defineClass2(name, b, b.position(), len, protectionDomain, source);
         postDefineClass(c, protectionDomain);
+        counters.defined(t0);
         return c;
     }
 
@@ -1057,6 +1151,146 @@ public abstract class ClassLoader {
     }
 
 
+    /**
+     * Returns a snapshot of the class loading statistics of this class
+     * loader.  The statistics cover the classes defined by this loader
+     * through the {@code defineClass} methods, the invocations of
+     * {@link #findClass findClass} by {@link #loadClass(String, boolean)
+     * loadClass} that did not find the class, and, if this loader is
+     * parallel capable, the times {@code loadClass} had to wait for the
+     * {@linkplain #getClassLoadingLock class loading lock} of a class that
+     * another thread was loading.
+     *
+     * @return the class loading statistics of this class loader
+     *
+     * @since 1.8
+     */
+    public Statistics getClassLoadingStatistics() {
+        return new Statistics(counters.definedClasses.sum(),
+                              counters.defineTime.sum(),
+                              counters.findClassMisses.sum(),
+                              counters.lockWaits.sum(),
+                              counters.lockWaitTime.sum(),
+                              parallelLockMap != null ? parallelLockMap.size() : 0);
+    }
+
+    /**
+     * A snapshot of the class loading statistics of a class loader.
+     *
+     * @see ClassLoader#getClassLoadingStatistics()
+     * @since 1.8
+     */
+    public static final class Statistics {
+        private final long definedClassCount;
+        private final long defineTime;
+        private final long findClassMissCount;
+        private final long lockWaitCount;
+        private final long lockWaitTime;
+        private final int lockCount;
+
+        Statistics(long definedClassCount, long defineTime,
+                   long findClassMissCount, long lockWaitCount,
+                   long lockWaitTime, int lockCount) {
+            this.definedClassCount = definedClassCount;
+            this.defineTime = defineTime;
+            this.findClassMissCount = findClassMissCount;
+            this.lockWaitCount = lockWaitCount;
+            this.lockWaitTime = lockWaitTime;
+            this.lockCount = lockCount;
+        }
+
+        /**
+         * Returns the number of classes defined by the class loader.
+         *
+         * @return the number of classes defined
+         */
+        public long getDefinedClassCount() {
+            return definedClassCount;
+        }
+
+        /**
+         * Returns the total time spent defining classes, in nanoseconds.
+         *
+         * @return the time spent defining classes, in nanoseconds
+         */
+        public long getDefineTime() {
+            return defineTime;
+        }
+
+        /**
+         * Returns the number of times {@code findClass} was invoked by
+         * {@code loadClass} and did not find the class.
+         *
+         * @return the number of class lookup misses
+         */
+        public long getFindClassMissCount() {
+            return findClassMissCount;
+        }
+
+        /**
+         * Returns the number of times {@code loadClass} found the class
+         * loading lock in use by another thread.
+         *
+         * @return the number of class loading lock waits
+         */
+        public long getLockWaitCount() {
+            return lockWaitCount;
+        }
+
+        /**
+         * Returns the total time spent acquiring contended class loading
+         * locks, in nanoseconds.
+         *
+         * @return the time spent waiting for class loading locks, in
+         *         nanoseconds
+         */
+        public long getLockWaitTime() {
+            return lockWaitTime;
+        }
+
+        /**
+         * Returns the number of class loading locks the class loader
+         * retained.  Locks are retained while they are in use, so this is
+         * bounded by the number of classes being loaded concurrently plus
+         * locks not yet reclaimed by the garbage collector.
+         *
+         * @return the number of class loading locks retained
+         */
+        public int getLockCount() {
+            return lockCount;
+        }
+
+        /**
+         * Returns a string representation of the statistics.
+         *
+         * @return a string representation of the statistics
+         */
+        @Override
+        public String toString() {
+            return "ClassLoader.Statistics[definedClasses=" + definedClassCount
+                + ", defineTime=" + defineTime + "ns"
+                + ", findClassMisses=" + findClassMissCount
+                + ", lockWaits=" + lockWaitCount
+                + ", lockWaitTime=" + lockWaitTime + "ns"
+                + ", locks=" + lockCount + "]";
+        }
+    }
+
+    // Mutable counters behind getClassLoadingStatistics
+    private static final class Counters {
+        final LongAdder definedClasses = new LongAdder();
+        final LongAdder defineTime = new LongAdder();
+        final LongAdder findClassMisses = new LongAdder();
+        final LongAdder lockWaits = new LongAdder();
+        final LongAdder lockWaitTime = new LongAdder();
+
+        void defined(long t0) {
+            definedClasses.increment();
+            defineTime.add(System.nanoTime() - t0);
+        }
+    }
+
+
     // -- Resource --
 
     /**
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+import java.lang.ref.*;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * This class extends {@code ThreadLocal} to store values in a dense
+ * per-thread array rather than in a hash table.  Each
+ * {@code IndexedThreadLocal} is assigned a small index when it is
+ * constructed, and {@link #get} and {@link #set} access the current
+ * thread's slot for that index directly, with no probing and no cleanup
+ * work on the access path.
+ *
+ * <p>Indices are recycled once an {@code IndexedThreadLocal} becomes
+ * unreachable.  The values threads still hold for it are released
+ * eagerly: the next time a thread stores an indexed value after an index
+ * has been reclaimed, it clears all of its slots that belong to reclaimed
+ * variables.  A thread can also release them at a point of its choosing,
+ * for example between tasks of a thread pool, by invoking
+ * {@link ThreadLocal#expungeStaleEntries()}.
+ *
+ * <p>Indexed thread-local variables are best suited to a bounded number
+ * of long-lived variables, such as static fields, that are accessed
+ * frequently; the per-thread array is sized by the largest index the
+ * thread has used.  Values of indexed thread-local variables are not
+ * inherited by child threads.
+ *
+ * @param <T> the type of the thread local's value
+ * @see     ThreadLocal
+ * @since   1.8
+ */
+public class IndexedThreadLocal<T> extends ThreadLocal<T> {
+    /**
+     * The slot of this variable in every thread's IndexedMap.
+     */
+    private final int index;
+
+    /**
+     * The generation of the slot when it was assigned to this variable.
+     * A thread's slot holds a value for this variable only if it is
+     * tagged with the same generation; slots written by an earlier,
+     * reclaimed owner of the index carry an older generation.
+     */
+    private final int generation;
+
+    /**
+     * Creates an indexed thread local variable.
+     * @see #withInitial(java.util.function.Supplier)
+     */
+    public IndexedThreadLocal() {
+        long slot = allocate(this);
+        index = (int) (slot >>> 32);
+        generation = (int) slot;
+    }
+
+    /**
+     * Creates an indexed thread local variable. The initial value of the
+     * variable is determined by invoking the {@code get} method on the
+     * {@code Supplier}.
+     *
+     * @param <S> the type of the thread local's value
+     * @param supplier the supplier to be used to determine the initial value
+     * @return a new indexed thread local variable
+     * @throws NullPointerException if the specified supplier is null
+     */
+    public static <S> IndexedThreadLocal<S> withInitial(Supplier<? extends S> supplier) {
+        return new SuppliedIndexedThreadLocal<>(supplier);
+    }
+
+    /**
+     * Returns the value in the current thread's copy of this
+     * thread-local variable.  If the variable has no value for the
+     * current thread, it is first initialized to the value returned
+     * by an invocation of the {@link #initialValue} method.
+     *
+     * @return the current thread's value of this thread-local
+     */
+    @Override
+    public T get() {
+        IndexedMap map = Thread.currentThread().indexedThreadLocals;
+        int i = index;
+        if (map != null && i < map.generations.length
+            && map.generations[i] == generation) {
+            @SuppressWarnings("unchecked")
+            T result = (T)map.values[i];
+            return result;
+        }
+        return setInitialValue();
+    }
+
+    /**
+     * Variant of set() to establish initialValue. Used instead
+     * of set() in case user has overridden the set() method.
+     *
+     * @return the initial value
+     */
+    private T setInitialValue() {
+        T value = initialValue();
+        store(value);
+        return value;
+    }
+
+    /**
+     * Sets the current thread's copy of this thread-local variable
+     * to the specified value.
+     *
+     * @param value the value to be stored in the current thread's copy of
+     *        this thread-local.
+     */
+    @Override
+    public void set(T value) {
+        store(value);
+    }
+
+    private void store(Object value) {
+        Thread t = Thread.currentThread();
+        IndexedMap map = t.indexedThreadLocals;
+        if (map == null)
+            t.indexedThreadLocals = map = new IndexedMap(index + 1);
+        map.set(index, generation, value);
+    }
+
+    /**
+     * Removes the current thread's value for this thread-local
+     * variable.
+     */
+    @Override
+    public void remove() {
+        IndexedMap map = Thread.currentThread().indexedThreadLocals;
+        if (map != null)
+            map.remove(index, generation);
+    }
+
+    /**
+     * An extension of IndexedThreadLocal that obtains its initial value
+     * from the specified {@code Supplier}.
+     */
+    static final class SuppliedIndexedThreadLocal<T> extends IndexedThreadLocal<T> {
+
+        private final Supplier<? extends T> supplier;
+
+        SuppliedIndexedThreadLocal(Supplier<? extends T> supplier) {
+            this.supplier = Objects.requireNonNull(supplier);
+        }
+
+        @Override
+        protected T initialValue() {
+            return supplier.get();
+        }
+    }
+
+    /* ---------------- Index allocation -------------- */
+
+    /**
+     * Weak reference to an indexed variable, enqueued when the variable
+     * becomes unreachable so that its index can be reclaimed.
+     */
+    private static final class IndexRef
+            extends WeakReference<IndexedThreadLocal<?>> {
+        final int index;
+
+        IndexRef(IndexedThreadLocal<?> tl, int index) {
+            super(tl, queue);
+            this.index = index;
+        }
+    }
+
+    /** Guards all of the allocation state below. */
+    private static final Object lock = new Object();
+
+    /** Queue of references to reclaimable variables. */
+    private static final ReferenceQueue<IndexedThreadLocal<?>> queue =
+        new ReferenceQueue<>();
+
+    /** The current generation of each allocated index. */
+    private static int[] liveGenerations = new int[16];
+
+    /** Keeps the IndexRefs of live variables reachable. */
+    private static IndexRef[] refs = new IndexRef[16];
+
+    /** Stack of reclaimed indices available for reuse. */
+    private static int[] freeIndices = new int[16];
+    private static int freeCount;
+
+    /** The next never-used index. */
+    private static int nextIndex;
+
+    /**
+     * Incremented each time indices are reclaimed.  Compared against
+     * IndexedMap.epoch to decide whether a thread has stale slots.
+     */
+    private static volatile int reclaimEpoch;
+
+    /**
+     * Assigns an index to a new variable, preferring reclaimed indices to
+     * keep the per-thread arrays dense.
+     *
+     * @return the index in the high and the generation in the low 32 bits
+     */
+    private static long allocate(IndexedThreadLocal<?> tl) {
+        reclaimStaleIndices();
+        synchronized (lock) {
+            int i;
+            if (freeCount > 0) {
+                i = freeIndices[--freeCount];
+            } else {
+                i = nextIndex++;
+                if (i >= liveGenerations.length) {
+                    int newLen = Math.max(i + 1, liveGenerations.length * 2);
+                    liveGenerations = Arrays.copyOf(liveGenerations, newLen);
+                    refs = Arrays.copyOf(refs, newLen);
+                }
+                liveGenerations[i] = 1;
+            }
+            refs[i] = new IndexRef(tl, i);
+            return ((long) i << 32) | (liveGenerations[i] & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Reclaims the indices of all variables that have been enqueued as
+     * unreachable, advancing their generations so that threads' values
+     * for them are recognized as stale.
+     */
+    static void reclaimStaleIndices() {
+        IndexRef r = (IndexRef) queue.poll();
+        if (r == null)
+            return;
+        synchronized (lock) {
+            do {
+                int i = r.index;
+                if (refs[i] == r) {
+                    refs[i] = null;
+                    if (++liveGenerations[i] == 0)
+                        liveGenerations[i] = 1;
+                    if (freeCount == freeIndices.length)
+                        freeIndices = Arrays.copyOf(freeIndices, freeCount * 2);
+                    freeIndices[freeCount++] = i;
+                }
+            } while ((r = (IndexRef) queue.poll()) != null);
+            reclaimEpoch++;
+        }
+    }
+
+    /**
+     * The per-thread storage of indexed thread-local values.  Slot
+     * {@code i} holds the value of the variable with index {@code i}
+     * together with the generation of that variable; a generation of
+     * zero marks an empty slot.  Only the owning thread modifies the map.
+     * The class is package private to allow declaration of fields in
+     * class Thread.
+     */
+    static final class IndexedMap {
+        Object[] values;
+        int[] generations;
+
+        /** The number of non-empty slots, including stale ones. */
+        int size;
+
+        /** The reclaimEpoch as of the last expunge. */
+        private int epoch;
+
+        IndexedMap(int capacity) {
+            capacity = Math.max(capacity, 8);
+            values = new Object[capacity];
+            generations = new int[capacity];
+            epoch = reclaimEpoch;
+        }
+
+        void set(int i, int generation, Object value) {
+            if (i >= generations.length) {
+                int newLen = Math.max(i + 1, generations.length * 2);
+                values = Arrays.copyOf(values, newLen);
+                generations = Arrays.copyOf(generations, newLen);
+            }
+            int g = generations[i];
+            if (g != generation) {
+                if (g == 0)
+                    size++;
+                generations[i] = generation;
+            }
+            values[i] = value;
+
+            reclaimStaleIndices();
+            if (epoch != reclaimEpoch)
+                expungeStaleEntries();
+        }
+
+        void remove(int i, int generation) {
+            if (i < generations.length && generations[i] == generation) {
+                generations[i] = 0;
+                values[i] = null;
+                size--;
+            }
+        }
+
+        /**
+         * Clears every slot whose variable has been reclaimed.
+         *
+         * @return the number of slots cleared
+         */
+        int expungeStaleEntries() {
+            int removed = 0;
+            synchronized (lock) {
+                int[] gens = generations;
+                int[] live = liveGenerations;
+                for (int i = 0; i < gens.length; i++) {
+                    int g = gens[i];
+                    if (g != 0 && g != live[i]) {
+                        gens[i] = 0;
+                        values[i] = null;
+                        removed++;
+                    }
+                }
+                epoch = reclaimEpoch;
+            }
+            size -= removed;
+            return removed;
+        }
+    }
+}
@@ -26,6 +26,7 @@
 package java.lang;
 
 import java.lang.annotation.Native;
+import java.util.Objects;
 
 /**
  * The {@code Integer} class wraps a value of the primitive type
@@ -474,6 +475,79 @@ public final class Integer extends Number implements Comparable<Integer> {
                 return i+1;
     }
 
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code int}, exactly as returned by {@link #toString(int)}, into
+     * the character array {@code dst} starting at index {@code dstBegin},
+     * without allocating a {@code String}.  At most 11 characters are
+     * written.
+     *
+     * @param   i          the {@code int} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first character.
+     * @return  the index in {@code dst} following the last character
+     *          written.
+     * @exception IndexOutOfBoundsException if {@code dstBegin} is
+     *          negative, or the representation does not fit in {@code dst}
+     *          from {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getDecimalChars(int i, char[] dst, int dstBegin) {
+        if (i == Integer.MIN_VALUE) {
+            "-2147483648".getChars(0, 11, dst, dstBegin);
+            return dstBegin + 11;
+        }
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", size " + size + ", length " + dst.length);
+        getChars(i, dstBegin + size, dst);
+        return dstBegin + size;
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code int}, exactly as returned by {@link #toString(int)}, into
+     * the byte array {@code dst} as US-ASCII characters starting at index
+     * {@code dstBegin}, without allocating a {@code String}.  At most
+     * 11 bytes are written.
+     *
+     * @param   i          the {@code int} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the index in {@code dst} following the last byte written.
+     * @exception IndexOutOfBoundsException if {@code dstBegin} is
+     *          negative, or the representation does not fit in {@code dst}
+     *          from {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(int i, byte[] dst, int dstBegin) {
+        if (i == Integer.MIN_VALUE) {
+            if (dstBegin < 0 || dstBegin > dst.length - 11)
+                throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                    ", size 11, length " + dst.length);
+            for (int k = 0; k < 11; k++)
+                dst[dstBegin + k] = (byte) "-2147483648".charAt(k);
+            return dstBegin + 11;
+        }
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", size " + size + ", length " + dst.length);
+        int charPos = dstBegin + size;
+        int n = i;
+        if (n < 0)
+            n = -n;
+        // Digits are stored least significant first
+        do {
+            dst[--charPos] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n != 0);
+        if (i < 0)
+            dst[--charPos] = (byte) '-';
+        return dstBegin + size;
+    }
+
     /**
      * Parses the string argument as a signed integer in the radix
      * specified by the second argument. The characters in the string
@@ -594,6 +668,95 @@ public final class Integer extends Number implements Comparable<Integer> {
         return negative ? result : -result;
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code int} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.  No
+     * {@code String} is created for the range, so characters can be
+     * parsed directly out of a {@code StringBuilder} or a
+     * {@code java.nio.CharBuffer}.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code int}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code int} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code int} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static int parseInt(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        s = Objects.requireNonNull(s);
+
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+
+        boolean negative = false;
+        int i = beginIndex;
+        int limit = -Integer.MAX_VALUE;
+
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Integer.MIN_VALUE;
+                } else if (firstChar != '+') {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                if (i == endIndex) { // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+            }
+            int multmin = limit / radix;
+            int result = 0;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                result -= digit;
+            }
+            return negative ? result : -result;
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+    }
+
     /**
      * Parses the string argument as a signed decimal integer. The
      * characters in the string must all be decimal digits, except
@@ -27,6 +27,7 @@ package java.lang;
 
 import java.lang.annotation.Native;
 import java.math.*;
+import java.util.Objects;
 
 
 /**
@@ -484,6 +485,79 @@ public final class Long extends Number implements Comparable<Long> {
         return 19;
     }
 
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code long}, exactly as returned by {@link #toString(long)}, into
+     * the character array {@code dst} starting at index {@code dstBegin},
+     * without allocating a {@code String}.  At most 20 characters are
+     * written.
+     *
+     * @param   i          the {@code long} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first character.
+     * @return  the index in {@code dst} following the last character
+     *          written.
+     * @exception IndexOutOfBoundsException if {@code dstBegin} is
+     *          negative, or the representation does not fit in {@code dst}
+     *          from {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getDecimalChars(long i, char[] dst, int dstBegin) {
+        if (i == Long.MIN_VALUE) {
+            "-9223372036854775808".getChars(0, 20, dst, dstBegin);
+            return dstBegin + 20;
+        }
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", size " + size + ", length " + dst.length);
+        getChars(i, dstBegin + size, dst);
+        return dstBegin + size;
+    }
+
+    /**
+     * Writes the signed decimal representation of the specified
+     * {@code long}, exactly as returned by {@link #toString(long)}, into
+     * the byte array {@code dst} as US-ASCII characters starting at index
+     * {@code dstBegin}, without allocating a {@code String}.  At most
+     * 20 bytes are written.
+     *
+     * @param   i          the {@code long} to be converted.
+     * @param   dst        the destination array.
+     * @param   dstBegin   the index in {@code dst} of the first byte.
+     * @return  the index in {@code dst} following the last byte written.
+     * @exception IndexOutOfBoundsException if {@code dstBegin} is
+     *          negative, or the representation does not fit in {@code dst}
+     *          from {@code dstBegin}.
+     * @since 1.8
+     */
+    public static int getBytes(long i, byte[] dst, int dstBegin) {
+        if (i == Long.MIN_VALUE) {
+            if (dstBegin < 0 || dstBegin > dst.length - 20)
+                throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                    ", size 20, length " + dst.length);
+            for (int k = 0; k < 20; k++)
+                dst[dstBegin + k] = (byte) "-9223372036854775808".charAt(k);
+            return dstBegin + 20;
+        }
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (dstBegin < 0 || dstBegin > dst.length - size)
+            throw new IndexOutOfBoundsException("dstBegin " + dstBegin +
+                                                ", size " + size + ", length " + dst.length);
+        int charPos = dstBegin + size;
+        long n = i;
+        if (n < 0)
+            n = -n;
+        // Digits are stored least significant first
+        do {
+            dst[--charPos] = (byte) ('0' + (int) (n % 10));
+            n /= 10;
+        } while (n != 0);
+        if (i < 0)
+            dst[--charPos] = (byte) '-';
+        return dstBegin + size;
+    }
+
     /**
      * Parses the string argument as a signed {@code long} in the
      * radix specified by the second argument. The characters in the
@@ -603,6 +677,95 @@ public final class Long extends Number implements Comparable<Long> {
         return negative ? result : -result;
     }
 
+    /**
+     * Parses the {@link CharSequence} argument as a signed {@code long} in
+     * the specified {@code radix}, beginning at the specified
+     * {@code beginIndex} and extending to {@code endIndex - 1}.
+     *
+     * <p>The method does not take steps to guard against the
+     * {@code CharSequence} being mutated while parsing.  No
+     * {@code String} is created for the range, so characters can be
+     * parsed directly out of a {@code StringBuilder} or a
+     * {@code java.nio.CharBuffer}.
+     *
+     * @param      s   the {@code CharSequence} containing the {@code long}
+     *                  representation to be parsed
+     * @param      beginIndex   the beginning index, inclusive.
+     * @param      endIndex     the ending index, exclusive.
+     * @param      radix   the radix to be used while parsing {@code s}.
+     * @return     the signed {@code long} represented by the subsequence in
+     *             the specified radix.
+     * @throws     NullPointerException  if {@code s} is null.
+     * @throws     IndexOutOfBoundsException  if {@code beginIndex} is
+     *             negative, or if {@code beginIndex} is greater than
+     *             {@code endIndex} or if {@code endIndex} is greater than
+     *             {@code s.length()}.
+     * @throws     NumberFormatException  if the {@code CharSequence} does not
+     *             contain a parsable {@code long} in the specified
+     *             {@code radix}, or if {@code radix} is either smaller than
+     *             {@link java.lang.Character#MIN_RADIX} or larger than
+     *             {@link java.lang.Character#MAX_RADIX}.
+     * @since  1.8
+     */
+    public static long parseLong(CharSequence s, int beginIndex, int endIndex, int radix)
+                throws NumberFormatException {
+        s = Objects.requireNonNull(s);
+
+        if (beginIndex < 0 || beginIndex > endIndex || endIndex > s.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix +
+                                            " greater than Character.MAX_RADIX");
+        }
+
+        boolean negative = false;
+        int i = beginIndex;
+        long limit = -Long.MAX_VALUE;
+
+        if (i < endIndex) {
+            char firstChar = s.charAt(i);
+            if (firstChar < '0') { // Possible leading "+" or "-"
+                if (firstChar == '-') {
+                    negative = true;
+                    limit = Long.MIN_VALUE;
+                } else if (firstChar != '+') {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                if (i == endIndex) { // Cannot have lone "+" or "-"
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+            }
+            long multmin = limit / radix;
+            long result = 0;
+            while (i < endIndex) {
+                // Accumulating negatively avoids surprises near MAX_VALUE
+                int digit = Character.digit(s.charAt(i), radix);
+                if (digit < 0 || result < multmin) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    throw NumberFormatException.forCharSequence(s, beginIndex,
+                            endIndex, i);
+                }
+                i++;
+                result -= digit;
+            }
+            return negative ? result : -result;
+        } else {
+            throw NumberFormatException.forInputString("");
+        }
+    }
+
     /**
      * Parses the string argument as a signed decimal {@code long}.
      * The characters in the string must all be decimal digits, except
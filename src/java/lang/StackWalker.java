@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stack walker, giving lazy access to the frames of the current thread's
+ * stack.
+ *
+ * <p>{@link Throwable#getStackTrace()} creates a {@code StackTraceElement},
+ * with its class, method and file names, for every frame of the stack,
+ * even if the caller only needs the top few frames.  A
+ * {@code StackWalker} instead presents the frames as a {@code Stream} in
+ * which each frame is only decoded when the stream reaches it, so that a walk which stops early, for example with
+ * {@link Stream#findFirst() findFirst} or {@link Stream#limit limit},
+ * does no work for the remaining frames.  For example, to find the first
+ * caller outside of a given package:
+ * <pre> {@code
+ * Optional<StackWalker.StackFrame> frame = StackWalker.getInstance().walk(s ->
+ *     s.filter(f -> !f.getClassName().startsWith("com.example.logging."))
+ *      .findFirst());
+ * }</pre>
+ *
+ * <p>A walker created with {@link Option#RETAIN_CLASS_REFERENCE} can also
+ * walk the {@code Class} objects of the methods on the stack without
+ * building any strings, using {@link #walkClasses walkClasses} and
+ * {@link #getCallerClass getCallerClass}.
+ *
+ * <p>The first frame of a walk is the frame of the method that invoked
+ * {@code walk}, {@code forEach}, {@code walkClasses} or
+ * {@code getCallerClass}; frames of this class are never included.
+ * The frames are a snapshot taken when the walk begins.  {@code
+ * StackWalker} instances are immutable and safe for use by multiple
+ * threads.
+ *
+ * @since 1.8
+ */
+public final class StackWalker {
+
+    /**
+     * Stack walker options.
+     */
+    public enum Option {
+        /**
+         * Retains {@code Class} objects of the methods on the stack, as
+         * needed by {@link StackWalker#walkClasses walkClasses} and
+         * {@link StackWalker#getCallerClass getCallerClass}.
+         */
+        RETAIN_CLASS_REFERENCE,
+
+        /**
+         * Includes the frames of reflective invocation, such as
+         * {@link java.lang.reflect.Method#invoke Method.invoke}, in the
+         * frames returned by {@link StackWalker#walk walk} and
+         * {@link StackWalker#forEach forEach}; they are skipped by
+         * default.
+         */
+        SHOW_REFLECT_FRAMES
+    }
+
+    /**
+     * A frame of the stack, decoded lazily on first access to one of its
+     * properties.
+     */
+    public interface StackFrame {
+        /**
+         * Returns the binary name of the declaring class of the method
+         * represented by this frame.
+         *
+         * @return the binary name of the declaring class
+         */
+        String getClassName();
+
+        /**
+         * Returns the name of the method represented by this frame.
+         *
+         * @return the name of the method
+         */
+        String getMethodName();
+
+        /**
+         * Returns the name of the source file containing the execution
+         * point represented by this frame, or {@code null} if it is
+         * unavailable.
+         *
+         * @return the source file name, or {@code null}
+         */
+        String getFileName();
+
+        /**
+         * Returns the line number of the source line containing the
+         * execution point represented by this frame, or a negative number
+         * if it is unavailable.
+         *
+         * @return the line number, or a negative number
+         */
+        int getLineNumber();
+
+        /**
+         * Returns {@code true} if the method represented by this frame is
+         * a native method.
+         *
+         * @return {@code true} if the method is native
+         */
+        boolean isNativeMethod();
+
+        /**
+         * Returns a {@code StackTraceElement} for this frame.
+         *
+         * @return a {@code StackTraceElement} for this frame
+         */
+        StackTraceElement toStackTraceElement();
+    }
+
+    private static final StackWalker DEFAULT =
+        new StackWalker(Collections.<Option>emptySet());
+
+    private static final RuntimePermission CLASS_REFERENCE_PERMISSION =
+        new RuntimePermission("getStackWalkerWithClassReference");
+
+    private final boolean retainClassRef;
+    private final boolean showReflectFrames;
+
+    private StackWalker(Set<Option> options) {
+        retainClassRef = options.contains(Option.RETAIN_CLASS_REFERENCE);
+        showReflectFrames = options.contains(Option.SHOW_REFLECT_FRAMES);
+    }
+
+    /**
+     * Returns a {@code StackWalker} instance that skips reflection frames
+     * and does not retain {@code Class} references.
+     *
+     * @return a {@code StackWalker}
+     */
+    public static StackWalker getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a {@code StackWalker} instance with the given options.
+     *
+     * @param options the stack walking options
+     * @return a {@code StackWalker} configured with the given options
+     * @throws NullPointerException if {@code options} or any of its
+     *         elements is null
+     * @throws SecurityException if a security manager is present, the
+     *         options include {@link Option#RETAIN_CLASS_REFERENCE} and the
+     *         security manager denies {@code
+     *         RuntimePermission("getStackWalkerWithClassReference")}
+     */
+    public static StackWalker getInstance(Option... options) {
+        EnumSet<Option> set = EnumSet.noneOf(Option.class);
+        for (Option o : options)
+            set.add(Objects.requireNonNull(o));
+        if (set.contains(Option.RETAIN_CLASS_REFERENCE)) {
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null)
+                sm.checkPermission(CLASS_REFERENCE_PERMISSION);
+        }
+        return new StackWalker(set);
+    }
+
+    /**
+     * Applies the given function to a stream of the frames of the current
+     * thread, starting with the caller of this method, and returns its
+     * result.  Frames are only decoded as the stream reaches them.
+     *
+     * @param <T> the type of the result
+     * @param function a function that takes a stream of frames and
+     *        returns a result
+     * @return the result of applying the function
+     * @throws NullPointerException if {@code function} is null
+     */
+    public <T> T walk(Function<? super Stream<StackFrame>, ? extends T> function) {
+        Objects.requireNonNull(function);
+        Throwable backtrace = new Throwable();
+        return function.apply(StreamSupport.stream(
+            new FrameSpliterator(backtrace, showReflectFrames), false));
+    }
+
+    /**
+     * Performs the given action on each frame of the current thread,
+     * starting with the caller of this method.
+     *
+     * @param action an action to be performed on each frame
+     * @throws NullPointerException if {@code action} is null
+     */
+    public void forEach(Consumer<? super StackFrame> action) {
+        Objects.requireNonNull(action);
+        new FrameSpliterator(new Throwable(), showReflectFrames)
+            .forEachRemaining(action);
+    }
+
+    /**
+     * Applies the given function to a stream of the {@code Class} objects
+     * of the methods on the current thread's stack, starting with the
+     * caller of this method, and returns its result.  No names are
+     * decoded.  Native methods and reflection frames are not included.
+     *
+     * @param <T> the type of the result
+     * @param function a function that takes a stream of classes and
+     *        returns a result
+     * @return the result of applying the function
+     * @throws NullPointerException if {@code function} is null
+     * @throws UnsupportedOperationException if this walker was not
+     *         created with {@link Option#RETAIN_CLASS_REFERENCE}
+     */
+    public <T> T walkClasses(Function<? super Stream<Class<?>>, ? extends T> function) {
+        Objects.requireNonNull(function);
+        Class<?>[] classes = classContext();
+        int from = skipOwnClasses(classes);
+        return function.apply(Arrays.stream(classes, from, classes.length));
+    }
+
+    /**
+     * Returns the {@code Class} object of the caller of the method that
+     * invoked {@code getCallerClass}, skipping reflection frames.
+     *
+     * @return the {@code Class} object of the caller's caller
+     * @throws UnsupportedOperationException if this walker was not
+     *         created with {@link Option#RETAIN_CLASS_REFERENCE}
+     * @throws IllegalStateException if the method that invoked
+     *         {@code getCallerClass} is the bottom-most frame of the stack
+     */
+    public Class<?> getCallerClass() {
+        Class<?>[] classes = classContext();
+        int caller = skipOwnClasses(classes) + 1;
+        if (caller >= classes.length)
+            throw new IllegalStateException("no caller frame");
+        return classes[caller];
+    }
+
+    private Class<?>[] classContext() {
+        if (!retainClassRef)
+            throw new UnsupportedOperationException(
+                "This stack walker does not have RETAIN_CLASS_REFERENCE access");
+        return ClassContext.INSTANCE.get();
+    }
+
+    private static int skipOwnClasses(Class<?>[] classes) {
+        int i = 0;
+        while (i < classes.length
+               && (classes[i] == ClassContext.class || classes[i] == StackWalker.class))
+            i++;
+        return i;
+    }
+
+    /**
+     * Exposes the class context of the native security stack walk, which
+     * records the methods' classes without creating any names.
+     */
+    private static final class ClassContext extends SecurityManager {
+        static final ClassContext INSTANCE = AccessController.doPrivileged(
+            new PrivilegedAction<ClassContext>() {
+                public ClassContext run() {
+                    return new ClassContext();
+                }
+            });
+
+        Class<?>[] get() {
+            return getClassContext();
+        }
+    }
+
+    static boolean isReflectionFrame(String cname) {
+        return cname.startsWith("java.lang.reflect.") || cname.startsWith("sun.reflect.");
+    }
+
+    /**
+     * Spliterator over the frames of a captured backtrace.  The
+     * backtrace is captured without building StackTraceElements, which
+     * are created one frame at a time by the frames themselves.
+     */
+    private static final class FrameSpliterator
+            extends Spliterators.AbstractSpliterator<StackFrame> {
+        private final Throwable backtrace;
+        private final int depth;
+        private final boolean showReflectFrames;
+        private int index;
+
+        FrameSpliterator(Throwable backtrace, boolean showReflectFrames) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL
+                                  | Spliterator.IMMUTABLE);
+            this.backtrace = backtrace;
+            this.depth = backtrace.getStackTraceDepth();
+            this.showReflectFrames = showReflectFrames;
+            // Skip the frames of StackWalker itself
+            while (index < depth
+                   && backtrace.getStackTraceElement(index).getClassName()
+                               .startsWith("java.lang.StackWalker"))
+                index++;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super StackFrame> action) {
+            while (index < depth) {
+                Frame f = new Frame(backtrace, index++);
+                if (showReflectFrames || !isReflectionFrame(f.getClassName())) {
+                    action.accept(f);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long estimateSize() {
+            return depth - index;
+        }
+    }
+
+    private static final class Frame implements StackFrame {
+        private final Throwable backtrace;
+        private final int index;
+        private StackTraceElement element;
+
+        Frame(Throwable backtrace, int index) {
+            this.backtrace = backtrace;
+            this.index = index;
+        }
+
+        private StackTraceElement element() {
+            StackTraceElement e = element;
+            if (e == null)
+                element = e = backtrace.getStackTraceElement(index);
+            return e;
+        }
+
+        public String getClassName()  { return element().getClassName(); }
+        public String getMethodName() { return element().getMethodName(); }
+        public String getFileName()   { return element().getFileName(); }
+        public int getLineNumber()    { return element().getLineNumber(); }
+        public boolean isNativeMethod() { return element().isNativeMethod(); }
+        public StackTraceElement toStackTraceElement() { return element(); }
+
+        @Override
+        public String toString() {
+            return element().toString();
+        }
+    }
+}
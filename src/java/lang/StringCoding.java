@@ -56,6 +56,11 @@ class StringCoding {
         new ThreadLocal<>();
     private final static ThreadLocal<SoftReference<StringEncoder>> encoder =
         new ThreadLocal<>();
+    /** The cached coders of trusted charsets passed as Charset objects */
+    private final static ThreadLocal<SoftReference<StringDecoder>> csDecoder =
+        new ThreadLocal<>();
+    private final static ThreadLocal<SoftReference<StringEncoder>> csEncoder =
+        new ThreadLocal<>();
 
     private static boolean warnUnsupportedCharset = true;
 
@@ -118,12 +123,30 @@ class StringCoding {
     }
 
 
+    // Returns true if the given charset is the platform's ISO-8859-1, which
+    // maps every byte to the char of the same value
+    private static boolean isLatin1(Charset cs, boolean isTrusted) {
+        return isTrusted && cs.name().equals("ISO-8859-1");
+    }
+
+    // Returns true if the given charset is one of the platform's charsets
+    // which map bytes 0x00 to 0x7f to the chars of the same value, and back
+    private static boolean isASCIICompatible(Charset cs, boolean isTrusted) {
+        if (!isTrusted)
+            return false;
+        String csn = cs.name();
+        return csn.equals("UTF-8") || csn.equals("US-ASCII")
+            || csn.equals("ISO-8859-1");
+    }
+
     // -- Decoding --
     private static class StringDecoder {
         private final String requestedCharsetName;
         private final Charset cs;
         private final CharsetDecoder cd;
         private final boolean isTrusted;
+        private final boolean isLatin1;
+        private final boolean isASCIICompatible;
 
         private StringDecoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -132,6 +155,8 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.isLatin1 = isLatin1(cs, isTrusted);
+            this.isASCIICompatible = isASCIICompatible(cs, isTrusted);
         }
 
         String charsetName() {
@@ -145,6 +170,26 @@ class StringCoding {
         }
 
         char[] decode(byte[] ba, int off, int len) {
+            if (isLatin1) {
+                char[] ca = new char[len];
+                for (int i = 0; i < len; i++)
+                    ca[i] = (char)(ba[off + i] & 0xff);
+                return ca;
+            }
+            if (isASCIICompatible) {
+                // If all bytes are ASCII they are widened into an array of
+                // the exact size, and the decoder is not needed; the scan
+                // only reads, so nothing is redone if the decoder is needed
+                int i = 0;
+                while (i < len && ba[off + i] >= 0)
+                    i++;
+                if (i == len) {
+                    char[] ca = new char[len];
+                    for (i = 0; i < len; i++)
+                        ca[i] = (char)ba[off + i];
+                    return ca;
+                }
+            }
             int en = scale(len, cd.maxCharsPerByte());
             char[] ca = new char[en];
             if (len == 0)
@@ -198,7 +243,9 @@ class StringCoding {
         // an additional StringDe/Encoder object to wrap it is to share the
         // de/encode() method. These SD/E objects are short-lifed, the young-gen
         // gc should be able to take care of them well. But the best approash
-        // is still not to generate them if not really necessary.
+        // is still not to generate them if not really necessary. A trusted
+        // cs is cached, in a slot of its own so that it neither evicts nor
+        // is evicted by the coder cached for a charset name.
         // (2)The defensive copy of the input byte/char[] has a big performance
         // impact, as well as the outgoing result byte/char[]. Need to do the
         // optimization check of (sm==null && classLoader0==null) for both.
@@ -210,6 +257,14 @@ class StringCoding {
         // check (... && (isTrusted || SM == null || getClassLoader0())) in trim
         // but it then can be argued that the SM is null when the opertaion
         // is started...
+        StringDecoder sd = deref(csDecoder);
+        if (sd != null && sd.cs == cs)
+            return sd.decode(ba, off, len);
+        if (cs.getClass().getClassLoader0() == null) {
+            sd = new StringDecoder(cs, cs.name());
+            set(csDecoder, sd);
+            return sd.decode(ba, off, len);
+        }
         CharsetDecoder cd = cs.newDecoder();
         int en = scale(len, cd.maxCharsPerByte());
         char[] ca = new char[en];
@@ -275,6 +330,8 @@ class StringCoding {
         private CharsetEncoder ce;
         private final String requestedCharsetName;
         private final boolean isTrusted;
+        private final boolean isLatin1;
+        private final boolean isASCIICompatible;
 
         private StringEncoder(Charset cs, String rcn) {
             this.requestedCharsetName = rcn;
@@ -283,6 +340,8 @@ class StringCoding {
                 .onMalformedInput(CodingErrorAction.REPLACE)
                 .onUnmappableCharacter(CodingErrorAction.REPLACE);
             this.isTrusted = (cs.getClass().getClassLoader0() == null);
+            this.isLatin1 = isLatin1(cs, isTrusted);
+            this.isASCIICompatible = isASCIICompatible(cs, isTrusted);
         }
 
         String charsetName() {
@@ -296,6 +355,21 @@ class StringCoding {
         }
 
         byte[] encode(char[] ca, int off, int len) {
+            if (isASCIICompatible) {
+                // Chars which all encode to one byte of the same value are
+                // narrowed into an array of the exact size, rather than
+                // encoded into one of the worst-case size and trimmed
+                char limit = isLatin1 ? '\u0100' : '\u0080';
+                int i = 0;
+                while (i < len && ca[off + i] < limit)
+                    i++;
+                if (i == len) {
+                    byte[] ba = new byte[len];
+                    for (i = 0; i < len; i++)
+                        ba[i] = (byte)ca[off + i];
+                    return ba;
+                }
+            }
             int en = scale(len, ce.maxBytesPerChar());
             byte[] ba = new byte[en];
             if (len == 0)
@@ -345,6 +419,15 @@ class StringCoding {
     }
 
     static byte[] encode(Charset cs, char[] ca, int off, int len) {
+        // A trusted cs is cached, as in decode(Charset, byte[], int, int)
+        StringEncoder se = deref(csEncoder);
+        if (se != null && se.cs == cs)
+            return se.encode(ca, off, len);
+        if (cs.getClass().getClassLoader0() == null) {
+            se = new StringEncoder(cs, cs.name());
+            set(csEncoder, se);
+            return se.encode(ca, off, len);
+        }
         CharsetEncoder ce = cs.newEncoder();
         int en = scale(len, ce.maxBytesPerChar());
         byte[] ba = new byte[en];
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang;
+
+/**
+ * Helper for string concatenation.  These methods are mostly looked up with
+ * private lookups from {@link java.lang.invoke.StringConcatFactory}, and
+ * used in {@link java.lang.invoke.MethodHandle} combinations there.
+ */
+final class StringConcatHelper {
+
+    private StringConcatHelper() {
+        // no instantiation
+    }
+
+    /**
+     * Mixers: return {@code length} plus the length of the string
+     * representation of the value, as by {@code String.valueOf}.  The
+     * length is a {@code long} so that it cannot overflow before it is
+     * checked by {@link #newArray}.
+     */
+    static long mix(long length, boolean value) {
+        return length + (value ? 4 : 5);
+    }
+
+    static long mix(long length, char value) {
+        return length + 1;
+    }
+
+    static long mix(long length, int value) {
+        if (value == Integer.MIN_VALUE)
+            return length + 11;
+        return length + ((value < 0) ? Integer.stringSize(-value) + 1
+                                     : Integer.stringSize(value));
+    }
+
+    static long mix(long length, long value) {
+        if (value == Long.MIN_VALUE)
+            return length + 20;
+        return length + ((value < 0) ? Long.stringSize(-value) + 1
+                                     : Long.stringSize(value));
+    }
+
+    static long mix(long length, String value) {
+        return length + value.length();
+    }
+
+    /**
+     * Allocates the array for a result of the given exact length.
+     *
+     * @throws OutOfMemoryError if the result would be longer than
+     *         {@code Integer.MAX_VALUE} characters
+     */
+    static char[] newArray(long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("Overflow: String length out of range");
+        }
+        return new char[(int) length];
+    }
+
+    /**
+     * Appenders: copy {@code fragment} and then the string representation of
+     * the value into {@code buf} at {@code index}, and return the index
+     * following the last character written.  Primitive values are written
+     * directly, without creating a {@code String}.
+     */
+    static int append(int index, char[] buf, String fragment, boolean value) {
+        return copy(value ? "true" : "false", buf, copy(fragment, buf, index));
+    }
+
+    static int append(int index, char[] buf, String fragment, char value) {
+        index = copy(fragment, buf, index);
+        buf[index] = value;
+        return index + 1;
+    }
+
+    static int append(int index, char[] buf, String fragment, int value) {
+        return Integer.getDecimalChars(value, buf, copy(fragment, buf, index));
+    }
+
+    static int append(int index, char[] buf, String fragment, long value) {
+        return Long.getDecimalChars(value, buf, copy(fragment, buf, index));
+    }
+
+    static int append(int index, char[] buf, String fragment, String value) {
+        return copy(value, buf, copy(fragment, buf, index));
+    }
+
+    /**
+     * Copies the last fragment into {@code buf} at {@code index}, which
+     * completes the array, and returns the string it becomes the value of
+     * without being copied again.
+     */
+    static String newString(int index, char[] buf, String fragment) {
+        copy(fragment, buf, index);
+        // The array is fully populated and never escapes, so share it
+        return new String(buf, true);
+    }
+
+    private static int copy(String s, char[] buf, int index) {
+        int len = s.length();
+        s.getChars(0, len, buf, index);
+        return index + len;
+    }
+}
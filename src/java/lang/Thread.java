@@ -187,6 +187,12 @@ class Thread implements Runnable {
      */
     ThreadLocal.ThreadLocalMap inheritableThreadLocals = null;
 
+    /*
+     * IndexedThreadLocal values pertaining to this thread. This map is
+     * maintained by the IndexedThreadLocal class.
+     */
+    IndexedThreadLocal.IndexedMap indexedThreadLocals = null;
+
     /*
      * The requested stack size for this thread, or 0 if the creator did
      * not specify a stack size.  It is up to the VM to do whatever it
@@ -760,6 +766,7 @@ class Thread implements Runnable {
         /* Speed the release of some of these resources */
         threadLocals = null;
         inheritableThreadLocals = null;
+        indexedThreadLocals = null;
         inheritedAccessControlContext = null;
         blocker = null;
         uncaughtExceptionHandler = null;
@@ -1687,7 +1694,7 @@ class Thread implements Runnable {
     }
 
     private native static StackTraceElement[][] dumpThreads(Thread[] threads);
-    private native static Thread[] getThreads();
+    native static Thread[] getThreads();
 
     /**
      * Returns the identifier of this Thread.  The thread ID is a positive
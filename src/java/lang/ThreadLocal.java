@@ -25,9 +25,11 @@
 
 package java.lang;
 import java.lang.ref.*;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import sun.security.util.SecurityConstants;
 
 /**
  * This class provides thread-local variables.  These variables differ from
@@ -222,6 +224,130 @@ public class ThreadLocal<T> {
              m.remove(this);
      }
 
+    /**
+     * Removes the current thread's values for all thread-local variables
+     * that are no longer reachable.  Such stale values are otherwise only
+     * reclaimed incrementally, as a side effect of later accesses to other
+     * thread-local variables by the same thread, and may be retained for a
+     * long time by threads that are reused across tasks.
+     *
+     * <p>This method applies to ordinary, {@linkplain InheritableThreadLocal
+     * inheritable} and {@linkplain IndexedThreadLocal indexed} thread-local
+     * variables.  It is intended to be invoked at points where a thread is
+     * idle, such as from {@link
+     * java.util.concurrent.ThreadPoolExecutor#afterExecute afterExecute} of
+     * a thread pool.
+     *
+     * @return the number of stale values removed
+     * @since 1.8
+     */
+    public static int expungeStaleEntries() {
+        Thread t = Thread.currentThread();
+        int removed = expungeStaleEntries(t.threadLocals)
+                      + expungeStaleEntries(t.inheritableThreadLocals);
+        IndexedThreadLocal.IndexedMap im = t.indexedThreadLocals;
+        if (im != null) {
+            IndexedThreadLocal.reclaimStaleIndices();
+            removed += im.expungeStaleEntries();
+        }
+        return removed;
+    }
+
+    private static int expungeStaleEntries(ThreadLocalMap map) {
+        if (map == null)
+            return 0;
+        int before = map.size;
+        map.expungeStaleEntries();
+        return before - map.size;
+    }
+
+    /**
+     * Returns a description of the threads holding the most thread-local
+     * values, in decreasing order of the number of values held.  For each
+     * thread the description gives the number of ordinary, inheritable and
+     * indexed thread-local values, how many ordinary and inheritable values
+     * belong to variables that are no longer reachable, and the capacity of
+     * the underlying tables.  The figures for threads other than the
+     * current thread are read without synchronization and are only
+     * approximate.
+     *
+     * @param  limit the maximum number of threads to describe
+     * @return a description of the threads with the most thread-local
+     *         values, one line per thread
+     * @throws IllegalArgumentException if {@code limit} is negative
+     * @throws SecurityException
+     *        if a security manager exists and its
+     *        {@code checkPermission} method doesn't allow
+     *        getting the stack trace of thread or modifying thread groups.
+     * @since 1.8
+     */
+    public static String describeLargestMaps(int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("limit: " + limit);
+        SecurityManager security = System.getSecurityManager();
+        if (security != null) {
+            security.checkPermission(
+                SecurityConstants.GET_STACK_TRACE_PERMISSION);
+            security.checkPermission(
+                SecurityConstants.MODIFY_THREADGROUP_PERMISSION);
+        }
+
+        Thread[] threads = Thread.getThreads();
+        long[][] stats = new long[threads.length][];
+        Integer[] order = new Integer[threads.length];
+        for (int i = 0; i < threads.length; i++) {
+            Thread t = threads[i];
+            long[] locals = mapStats(t.threadLocals);
+            long[] inheritable = mapStats(t.inheritableThreadLocals);
+            IndexedThreadLocal.IndexedMap im = t.indexedThreadLocals;
+            int indexed = (im == null) ? 0 : im.size;
+            int indexedCapacity = (im == null) ? 0 : im.generations.length;
+            stats[i] = new long[] {
+                locals[0] + inheritable[0] + indexed,
+                locals[0], locals[1], locals[2],
+                inheritable[0], inheritable[1], inheritable[2],
+                indexed, indexedCapacity };
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(stats[b][0], stats[a][0]));
+
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < Math.min(limit, order.length); k++) {
+            int i = order[k];
+            long[] st = stats[i];
+            if (st[0] == 0)
+                break;
+            sb.append('"').append(threads[i].getName()).append("\" id=")
+              .append(threads[i].getId())
+              .append(" threadLocals=").append(st[1])
+              .append(" (stale ").append(st[2])
+              .append(", capacity ").append(st[3])
+              .append(") inheritable=").append(st[4])
+              .append(" (stale ").append(st[5])
+              .append(", capacity ").append(st[6])
+              .append(") indexed=").append(st[7])
+              .append(" (capacity ").append(st[8])
+              .append(")\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the size, stale entry count and capacity of the given map,
+     * which may belong to another thread.
+     */
+    private static long[] mapStats(ThreadLocalMap map) {
+        if (map == null)
+            return new long[3];
+        ThreadLocalMap.Entry[] tab = map.table;
+        int stale = 0;
+        for (ThreadLocalMap.Entry e : tab) {
+            if (e != null && e.get() == null)
+                stale++;
+        }
+        return new long[] { map.size, stale, tab.length };
+    }
+
     /**
      * Get the map associated with a ThreadLocal. Overridden in
      * InheritableThreadLocal.
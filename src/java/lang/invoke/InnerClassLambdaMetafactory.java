@@ -94,6 +94,17 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
         dumper = (null == path) ? null : ProxyClassesDumper.getInstance(path);
     }
 
+    // For reusing classes spun by earlier runs, to reduce startup time
+    private static final ProxyClassCache proxyClassCache;
+
+    static {
+        final String key = "jdk.internal.lambda.proxyClassCache";
+        String path = AccessController.doPrivileged(
+                new GetPropertyAction(key), null,
+                new PropertyPermission(key , "read"));
+        proxyClassCache = (null == path) ? null : ProxyClassCache.getInstance(path);
+    }
+
     // See context values in AbstractValidatingLambdaMetafactory
     private final String implMethodClassName;        // Name of type containing implementation "CC"
     private final String implMethodName;             // Name of implementation method "impl"
@@ -247,6 +258,18 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
      * is not found
      */
     private Class<?> spinInnerClass() throws LambdaConversionException {
+        String cacheKey = null;
+        // Classes defined with the private access of a bootstrap class are
+        // never taken from the cache, whatever it is protected by
+        if (proxyClassCache != null && targetClass.getClassLoader() != null) {
+            cacheKey = proxyClassCacheKey();
+            byte[] cachedBytes = proxyClassCache.lookup(cacheKey);
+            if (cachedBytes != null) {
+                // Spun by an earlier run, under the class name it had then
+                return UNSAFE.defineAnonymousClass(targetClass, cachedBytes, null);
+            }
+        }
+
         String[] interfaces;
         String samIntf = samBase.getName().replace('.', '/');
         boolean accidentallySerializable = !isSerializable && Serializable.class.isAssignableFrom(samBase);
@@ -323,9 +346,41 @@ import static jdk.internal.org.objectweb.asm.Opcodes.*;
             new PropertyPermission("user.dir", "read"));
         }
 
+        if (cacheKey != null) {
+            proxyClassCache.store(cacheKey, classBytes);
+        }
+
         return UNSAFE.defineAnonymousClass(targetClass, classBytes, null);
     }
 
+    /**
+     * Returns a key identifying the content of the class spun for this
+     * call site, apart from its name: every input of the class file
+     * generation, by class name.
+     */
+    private String proxyClassCacheKey() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(targetClass.getName()).append(';')
+          .append(invokedType.toMethodDescriptorString()).append(';')
+          .append(samBase.getName()).append('.')
+          .append(samMethodName).append(samMethodType.toMethodDescriptorString()).append(';')
+          .append(implKind).append(implDefiningClass.isInterface() ? "I " : "C ")
+          .append(implMethodClassName).append('.')
+          .append(implMethodName).append(implMethodDesc).append(';')
+          .append(implMethodReturnClass.getName()).append(';')
+          .append(instantiatedMethodType.toMethodDescriptorString()).append(';')
+          .append(isSerializable ? 'S' : 'N');
+        for (Class<?> markerInterface : markerInterfaces) {
+            sb.append(';').append(markerInterface.getName());
+        }
+        if (additionalBridges != null) {
+            for (MethodType mt : additionalBridges) {
+                sb.append(';').append(mt.toMethodDescriptorString());
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * Generate the factory method for the class
      */
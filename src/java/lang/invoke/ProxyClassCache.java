@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang.invoke;
+
+import sun.util.logging.PlatformLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilePermission;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.AccessController;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivilegedAction;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PropertyPermission;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Helper class used by InnerClassLambdaMetafactory to reuse the class files
+ * of lambda proxy classes spun by earlier runs.  Class files are keyed by a
+ * string describing everything that determines their content, kept in a
+ * single file which is read on first use, and rewritten at shutdown if new
+ * classes were spun.  The file records the version of the runtime that
+ * wrote it, and is ignored if read by a different one.
+ *
+ * <p> The cached class files are defined as proxy classes without being
+ * verified against their key, so each entry carries an HMAC-SHA256 of the
+ * runtime version, its key and its class file, computed with a secret that
+ * is kept next to the cache file, in a file of the same name with a {@code
+ * .key} suffix, readable only by its owner.  The cache is only used if the
+ * directory, the cache file and the secret are owned by the user running
+ * the application and cannot be modified by other users, and a file whose
+ * entries do not all verify is discarded.  Where POSIX file permissions
+ * are not supported these conditions cannot be checked, and caching is
+ * disabled.
+ *
+ * @implNote
+ * <p> Because this class is called by LambdaMetafactory, make use
+ * of lambda lead to recursive calls cause stack overflow.  Lookups made
+ * while the cache file is read are therefore treated as misses, so that
+ * reading it through java.nio.file.Files and the java.io data streams
+ * cannot recurse into the cache.
+ */
+final class ProxyClassCache {
+    private static final int MAGIC = 0x4C414D42;  // "LAMB"
+    private static final int FORMAT_VERSION = 2;
+    // Keeps keys within the limit of DataOutput.writeUTF
+    private static final int MAX_KEY_LENGTH = 8192;
+    private static final int SECRET_LENGTH = 32;
+    private static final int MAC_LENGTH = 32;     // HMAC-SHA256
+    private static final int HMAC_BLOCK_SIZE = 64;
+
+    private static final Set<PosixFilePermission> OWNER_READ_WRITE =
+        EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+
+    private final File file;
+    private final File keyFile;
+    private final String runtimeVersion;
+
+    // Class files read from the cache file, guarded by this
+    private Map<String, byte[]> loaded;
+    // Thread reading the cache file, to fail lookups made while reading
+    private Thread loadingThread;
+    // Secret of the HMACs, or null if the cache cannot be used; set by read
+    private volatile byte[] secret;
+
+    // Class files spun in this run and not in the cache file
+    private final ConcurrentHashMap<String, byte[]> spun = new ConcurrentHashMap<>();
+
+    public static ProxyClassCache getInstance(String path) {
+        if (null == path) {
+            return null;
+        }
+        path = path.trim();
+        if (path.length() == 0) {
+            PlatformLogger.getLogger(ProxyClassCache.class.getName())
+                          .warning("Empty lambda proxy class cache path - caching disabled");
+            return null;
+        }
+        final ProxyClassCache cache = new ProxyClassCache(new File(path).getAbsoluteFile());
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    Runtime.getRuntime().addShutdownHook(new Thread() {
+                        @Override
+                        public void run() {
+                            cache.savePrivileged();
+                        }
+                    });
+                    return null;
+                }
+            });
+        return cache;
+    }
+
+    private ProxyClassCache(File file) {
+        this.file = file;
+        this.keyFile = new File(file.getPath() + ".key");
+        this.runtimeVersion = AccessController.doPrivileged(
+            new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return System.getProperty("java.runtime.version") + "/"
+                        + System.getProperty("java.vm.version");
+                }
+            });
+    }
+
+    /**
+     * Returns the cached class file for the given key, or null if the key
+     * is not cached.
+     */
+    public byte[] lookup(String key) {
+        Map<String, byte[]> classes = loadedClasses();
+        return (classes != null) ? classes.get(key) : null;
+    }
+
+    /**
+     * Records the class file spun for the given key, to be written to the
+     * cache file at shutdown.
+     */
+    public void store(String key, byte[] classBytes) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            return;
+        }
+        Map<String, byte[]> classes = loadedClasses();
+        if (classes != null && secret != null && !classes.containsKey(key)) {
+            spun.putIfAbsent(key, classBytes);
+        }
+    }
+
+    private synchronized Map<String, byte[]> loadedClasses() {
+        if (loaded == null) {
+            if (loadingThread != null) {
+                // Lambda spun while reading the cache file
+                return null;
+            }
+            loadingThread = Thread.currentThread();
+            try {
+                loaded = AccessController.doPrivileged(
+                    new PrivilegedAction<Map<String, byte[]>>() {
+                        @Override
+                        public Map<String, byte[]> run() {
+                            return read();
+                        }
+                    }, null,
+                    new FilePermission(file.getParent(), "read"),
+                    new FilePermission(file.getPath(), "read"),
+                    new FilePermission(keyFile.getPath(), "read,write"),
+                    new RuntimePermission("accessUserInformation"),
+                    new PropertyPermission("user.name", "read"));
+            } finally {
+                loadingThread = null;
+            }
+        }
+        return loaded;
+    }
+
+    private Map<String, byte[]> read() {
+        Map<String, byte[]> classes = new HashMap<>();
+        try {
+            if (!isPrivate(file.getParentFile().toPath(), false)) {
+                warning("Lambda proxy class cache directory " + file.getParent()
+                        + " is not owned by the current user or is writable by others"
+                        + " - caching disabled", null);
+                return Collections.emptyMap();
+            }
+            byte[] key = readOrCreateSecret();
+            if (key == null) {
+                return Collections.emptyMap();
+            }
+            secret = key;
+            if (!file.exists()) {
+                return classes;
+            }
+            if (!isPrivate(file.toPath(), false)) {
+                warning("Lambda proxy class cache " + file
+                        + " is not owned by the current user or is writable by others"
+                        + " - caching disabled", null);
+                secret = null;
+                return Collections.emptyMap();
+            }
+        } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+            warning("Cannot check lambda proxy class cache " + file + " - caching disabled", ex);
+            secret = null;
+            return Collections.emptyMap();
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath(),
+                                                             LinkOption.NOFOLLOW_LINKS)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                || !runtimeVersion.equals(in.readUTF())) {
+                return classes;
+            }
+            int count = in.readInt();
+            byte[] mac = new byte[MAC_LENGTH];
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte[] classBytes = new byte[in.readInt()];
+                in.readFully(classBytes);
+                in.readFully(mac);
+                if (!MessageDigest.isEqual(mac, mac(key, classBytes))) {
+                    warning("Lambda proxy class cache " + file
+                            + " failed verification - discarded", null);
+                    classes.clear();
+                    break;
+                }
+                classes.put(key, classBytes);
+            }
+        } catch (EOFException eof) {
+            warning("Truncated lambda proxy class cache " + file, null);
+            classes.clear();
+        } catch (IOException | GeneralSecurityException | RuntimeException ex) {
+            warning("Exception reading lambda proxy class cache " + file, ex);
+            classes.clear();
+        }
+        return classes;
+    }
+
+    /**
+     * Returns true if the given file is owned by the current user and can
+     * only be modified by its owner, or, for the secret, only be accessed
+     * by its owner.  Symbolic links are not followed.
+     */
+    private static boolean isPrivate(Path path, boolean secret) throws IOException {
+        PosixFileAttributes attrs = Files.readAttributes(path, PosixFileAttributes.class,
+                                                         LinkOption.NOFOLLOW_LINKS);
+        UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService()
+                                 .lookupPrincipalByName(System.getProperty("user.name"));
+        if (attrs.isSymbolicLink() || !attrs.owner().equals(user)) {
+            return false;
+        }
+        for (PosixFilePermission perm : attrs.permissions()) {
+            switch (perm) {
+                case GROUP_WRITE:
+                case OTHERS_WRITE:
+                    return false;
+                case GROUP_READ:
+                case GROUP_EXECUTE:
+                case OTHERS_READ:
+                case OTHERS_EXECUTE:
+                    if (secret) {
+                        return false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the secret of the HMACs, creating it if there is none, or
+     * null if the existing secret is not private to the current user.
+     */
+    private byte[] readOrCreateSecret() throws IOException {
+        Path path = keyFile.toPath();
+        if (!keyFile.exists()) {
+            byte[] key = new byte[SECRET_LENGTH];
+            new SecureRandom().nextBytes(key);
+            try {
+                Files.createFile(path, ownerReadWrite());
+                Files.write(path, key, LinkOption.NOFOLLOW_LINKS);
+                return key;
+            } catch (FileAlreadyExistsException ignore) {
+                // created concurrently by another run, read it below
+            }
+        }
+        if (!isPrivate(path, true)) {
+            warning("Lambda proxy class cache key " + keyFile
+                    + " is not private to the current user - caching disabled", null);
+            return null;
+        }
+        byte[] key = Files.readAllBytes(path);
+        if (key.length != SECRET_LENGTH) {
+            warning("Invalid lambda proxy class cache key " + keyFile
+                    + " - caching disabled", null);
+            return null;
+        }
+        return key;
+    }
+
+    private static FileAttribute<Set<PosixFilePermission>> ownerReadWrite() {
+        return PosixFilePermissions.asFileAttribute(OWNER_READ_WRITE);
+    }
+
+    /**
+     * Returns the HMAC-SHA256, with the secret, of the runtime version, the
+     * key and the class file.
+     */
+    private byte[] mac(String key, byte[] classBytes) throws GeneralSecurityException {
+        byte[] pad = new byte[HMAC_BLOCK_SIZE];
+        System.arraycopy(secret, 0, pad, 0, secret.length);
+        for (int i = 0; i < pad.length; i++) {
+            pad[i] ^= 0x36;
+        }
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(pad);
+        update(md, runtimeVersion.getBytes(StandardCharsets.UTF_8));
+        update(md, key.getBytes(StandardCharsets.UTF_8));
+        update(md, classBytes);
+        byte[] inner = md.digest();
+        for (int i = 0; i < pad.length; i++) {
+            pad[i] ^= (0x36 ^ 0x5c);
+        }
+        md.update(pad);
+        md.update(inner);
+        return md.digest();
+    }
+
+    // Length prefixed, so that the fields cannot be shifted into each other
+    private static void update(MessageDigest md, byte[] b) {
+        int n = b.length;
+        md.update(new byte[] { (byte) (n >>> 24), (byte) (n >>> 16),
+                               (byte) (n >>> 8), (byte) n });
+        md.update(b);
+    }
+
+    /**
+     * Writes the cache file from the shutdown hook, with only the
+     * permissions needed to replace it rather than whatever context the
+     * hook inherited.
+     */
+    private void savePrivileged() {
+        if (spun.isEmpty() || secret == null) {
+            return;
+        }
+        String tmp = tmpFile().getPath();
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+                @Override
+                public Void run() {
+                    save();
+                    return null;
+                }
+            }, null,
+            new FilePermission(file.getPath(), "write"),
+            new FilePermission(tmp, "read,write,delete"));
+    }
+
+    private File tmpFile() {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    private void save() {
+        if (spun.isEmpty() || secret == null) {
+            return;
+        }
+        Map<String, byte[]> classes;
+        synchronized (this) {
+            classes = (loaded != null) ? new HashMap<>(loaded) : new HashMap<>();
+        }
+        for (Map.Entry<String, byte[]> e : spun.entrySet()) {
+            classes.putIfAbsent(e.getKey(), e.getValue());
+        }
+        Path tmp = tmpFile().toPath();
+        try {
+            Files.deleteIfExists(tmp);
+            Files.createFile(tmp, ownerReadWrite());
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp,
+                                                                   LinkOption.NOFOLLOW_LINKS)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(runtimeVersion);
+                out.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> e : classes.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                    out.write(mac(e.getKey(), e.getValue()));
+                }
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception ex) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignore) { }
+            warning("Exception writing lambda proxy class cache " + file, null);
+            // simply don't care if this operation failed
+        }
+    }
+
+    private static void warning(String msg, Throwable t) {
+        PlatformLogger logger = PlatformLogger.getLogger(ProxyClassCache.class.getName());
+        if (t != null) {
+            logger.warning(msg, t);
+        } else {
+            logger.warning(msg);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.lang.invoke;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * <p>Methods to facilitate the creation of String concatenation methods, that
+ * can be used to efficiently concatenate a known number of arguments of known
+ * types, possibly after type adaptation and partial evaluation of arguments.
+ * These methods are typically used as <em>bootstrap methods</em> for {@code
+ * invokedynamic} call sites, to support the <em>string concatenation</em>
+ * feature of the Java Programming Language, as an alternative to compiling
+ * {@code a + b + c} into a chain of {@link StringBuilder#append} calls.
+ *
+ * <p>The concatenation methods linked here compute the exact length of the
+ * result before copying any characters, fill a single {@code char} array and
+ * wrap it in the resulting {@code String} without a further copy.  Arguments
+ * of type {@code boolean}, {@code char}, {@code byte}, {@code short}, {@code
+ * int} and {@code long} are sized and written straight into that array,
+ * without first being converted to a {@code String}.  By contrast, a {@code
+ * StringBuilder} chain starts from a default capacity, may grow its buffer
+ * several times, and copies it once more in {@code toString}.  Recipes
+ * consisting only of constants are linked to a constant method handle.
+ *
+ * <p>Indirect access to the behavior specified by the provided {@code
+ * MethodHandle} proceeds in order through two phases:
+ *
+ * <ol>
+ *     <li><em>Linkage</em> occurs when the methods in this class are invoked.
+ * They take as arguments a method type describing the concatenated arguments
+ * count and types, and optionally the String <em>recipe</em>, plus the
+ * constants that participate in the String concatenation.  Linkage combines
+ * method handles to fixed helper methods, one per argument, and does not
+ * generate any classes.  The {@code CallSite} holds the {@code
+ * MethodHandle} pointing to the exact concatenation method.</li>
+ *
+ *     <li><em>Invocation</em> occurs when a generated concatenation method is
+ * invoked with the exact dynamic arguments.  This may occur many times for a
+ * single concatenation method.  The method referenced by the behavior {@code
+ * MethodHandle} is invoked with the static arguments and any additional
+ * dynamic arguments provided on invocation, as if by {@link
+ * MethodHandle#invoke(Object...)}.</li>
+ * </ol>
+ *
+ * <p>Each argument is converted to a string as if by the corresponding
+ * {@code String.valueOf} method, so that the result is the same as that of
+ * the equivalent {@code StringBuilder} chain.
+ *
+ * @since 1.8
+ */
+public final class StringConcatFactory {
+
+    /**
+     * Tag used to demarcate an ordinary argument.
+     */
+    private static final char TAG_ARG = '\u0001';
+
+    /**
+     * Tag used to demarcate a constant.
+     */
+    private static final char TAG_CONST = '\u0002';
+
+    /**
+     * Maximum number of argument slots in String Concat call.
+     *
+     * While the maximum number of argument slots that indy call can handle is 253,
+     * we do not use all those slots, to let the strategies with MethodHandle
+     * combinators to use some arguments.
+     */
+    private static final int MAX_INDY_CONCAT_ARG_SLOTS = 200;
+
+    private static final Class<?> STRING_HELPER;
+
+    private static final MethodHandle NEW_ARRAY;
+
+    private static final MethodHandle NEW_STRING;
+
+    static {
+        try {
+            STRING_HELPER = Class.forName("java.lang.StringConcatHelper");
+            NEW_ARRAY = MethodHandles.Lookup.IMPL_LOOKUP.findStatic(STRING_HELPER, "newArray",
+                    methodType(char[].class, long.class));
+            NEW_STRING = MethodHandles.Lookup.IMPL_LOOKUP.findStatic(STRING_HELPER, "newString",
+                    methodType(String.class, int.class, char[].class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private StringConcatFactory() {
+        // no instantiation
+    }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods, that
+     * can be used to efficiently concatenate a known number of arguments of
+     * known types, possibly after type adaptation and partial evaluation of
+     * arguments.  All incoming arguments are treated as dynamic arguments, and
+     * are concatenated in order with nothing in between.
+     *
+     * @param lookup   Represents a lookup context with the accessibility
+     *                 privileges of the caller.  When used with {@code
+     *                 invokedynamic}, this is stacked automatically by the VM.
+     * @param name     The name of the method to implement.  This name is
+     *                 arbitrary, and has no meaning for this linkage method.
+     * @param concatType The expected signature of the {@code CallSite}.  The
+     *                   parameter types represent the types of concatenation
+     *                   arguments; the return type is always assignable from
+     *                   {@link java.lang.String}.
+     * @return a CallSite whose target can be used to perform String
+     * concatenation, with dynamic concatenation arguments described by the given
+     * {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated, such as the return type
+     *                               not being assignable from {@code String},
+     *                               or more than 200 argument slots being
+     *                               required.
+     * @throws NullPointerException If any of the incoming arguments is null.
+     */
+    public static CallSite makeConcat(MethodHandles.Lookup lookup,
+                                      String name,
+                                      MethodType concatType) throws StringConcatException {
+        StringBuilder sb = new StringBuilder(concatType.parameterCount());
+        for (int i = 0; i < concatType.parameterCount(); i++) {
+            sb.append(TAG_ARG);
+        }
+        return makeConcatWithConstants(lookup, name, concatType, sb.toString());
+    }
+
+    /**
+     * Facilitates the creation of optimized String concatenation methods, that
+     * can be used to efficiently concatenate a known number of arguments of
+     * known types, possibly after type adaptation and partial evaluation of
+     * arguments.
+     *
+     * <p>The recipe is a string of characters in which:
+     * <ul>
+     *     <li>{@code \1 (Unicode point 0001)}: an ordinary argument, taken
+     *     from the next dynamic argument in turn;</li>
+     *     <li>{@code \2 (Unicode point 0002)}: a constant, taken from the next
+     *     element of {@code constants} in turn;</li>
+     *     <li>any other character is copied to the result as is.</li>
+     * </ul>
+     *
+     * @param lookup   Represents a lookup context with the accessibility
+     *                 privileges of the caller.  When used with {@code
+     *                 invokedynamic}, this is stacked automatically by the VM.
+     * @param name     The name of the method to implement.  This name is
+     *                 arbitrary, and has no meaning for this linkage method.
+     * @param concatType The expected signature of the {@code CallSite}.  The
+     *                   parameter types represent the types of dynamic
+     *                   concatenation arguments; the return type is always
+     *                   assignable from {@link java.lang.String}.
+     * @param recipe   Concatenation recipe, described above.
+     * @param constants A vararg parameter representing the constants passed to
+     *                  the linkage method.
+     * @return a CallSite whose target can be used to perform String
+     * concatenation, with dynamic concatenation arguments described by the given
+     * {@code concatType}.
+     * @throws StringConcatException If any of the linkage invariants described
+     *                               here are violated, such as the number of
+     *                               argument or constant tags not matching the
+     *                               arguments or constants, or more than 200
+     *                               argument slots being required.
+     * @throws NullPointerException If any of the incoming arguments is null, or
+     *                              any constant in {@code recipe} is null.
+     */
+    public static CallSite makeConcatWithConstants(MethodHandles.Lookup lookup,
+                                                   String name,
+                                                   MethodType concatType,
+                                                   String recipe,
+                                                   Object... constants) throws StringConcatException {
+        Objects.requireNonNull(lookup, "Lookup is null");
+        Objects.requireNonNull(name, "Name is null");
+        Objects.requireNonNull(concatType, "Concat type is null");
+        Objects.requireNonNull(recipe, "Recipe is null");
+        Objects.requireNonNull(constants, "Constants are null");
+
+        for (Object o : constants) {
+            Objects.requireNonNull(o, "Cannot accept null constants");
+        }
+
+        if (!concatType.returnType().isAssignableFrom(String.class)) {
+            throw new StringConcatException(
+                    "The return type should be compatible with String, but it is " +
+                            concatType.returnType());
+        }
+
+        int slots = 0;
+        for (Class<?> c : concatType.parameterList()) {
+            slots += (c == long.class || c == double.class) ? 2 : 1;
+        }
+        if (slots > MAX_INDY_CONCAT_ARG_SLOTS) {
+            throw new StringConcatException("Too many concat argument slots: " +
+                    slots + ", can only accept " + MAX_INDY_CONCAT_ARG_SLOTS);
+        }
+
+        // Split the recipe into the literal fragments surrounding the
+        // arguments, folding constants into the fragments
+        List<String> fragments = new ArrayList<>();
+        StringBuilder acc = new StringBuilder();
+        int argC = 0, constC = 0;
+        for (int i = 0; i < recipe.length(); i++) {
+            char c = recipe.charAt(i);
+            if (c == TAG_CONST) {
+                if (constC >= constants.length) {
+                    throw new StringConcatException("Mismatched number of concat constants: recipe wants " +
+                            (constC + 1) + "+ constants, but only " + constants.length + " are passed");
+                }
+                acc.append(constants[constC++]);
+            } else if (c == TAG_ARG) {
+                if (argC >= concatType.parameterCount()) {
+                    throw new StringConcatException("Mismatched number of concat arguments: recipe wants " +
+                            (argC + 1) + "+ arguments, but signature provides " +
+                            concatType.parameterCount());
+                }
+                fragments.add(acc.toString());
+                acc.setLength(0);
+                argC++;
+            } else {
+                acc.append(c);
+            }
+        }
+        fragments.add(acc.toString());
+
+        if (argC != concatType.parameterCount()) {
+            throw new StringConcatException("Mismatched number of concat arguments: recipe wants " +
+                    argC + " arguments, but signature provides " + concatType.parameterCount());
+        }
+        if (constC != constants.length) {
+            throw new StringConcatException("Mismatched number of concat constants: recipe wants " +
+                    constC + " constants, but " + constants.length + " are passed");
+        }
+
+        try {
+            return new ConstantCallSite(generate(concatType, fragments));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new StringConcatException("Generator failed", e);
+        }
+    }
+
+    private static MethodHandle generate(MethodType concatType, List<String> fragments)
+            throws ReflectiveOperationException {
+        int count = concatType.parameterCount();
+        if (count == 0) {
+            // All-constant recipe: the result is known at linkage time, and a
+            // fresh instance is not required as the expression is constant
+            return MethodHandles.constant(String.class, fragments.get(0))
+                                .asType(concatType);
+        }
+
+        // Arguments that are not written directly are converted to a String
+        // first, as the equivalent append call would
+        Class<?>[] ptypes = new Class<?>[count];
+        MethodHandle[] filters = new MethodHandle[count];
+        for (int i = 0; i < count; i++) {
+            Class<?> type = concatType.parameterType(i);
+            if (type == byte.class || type == short.class || type == int.class) {
+                ptypes[i] = int.class;
+            } else if (type == long.class || type == char.class || type == boolean.class) {
+                ptypes[i] = type;
+            } else {
+                ptypes[i] = String.class;
+                filters[i] = stringifier(type);
+            }
+        }
+        List<Class<?>> args = Arrays.asList(ptypes);
+
+        // length(args...): the constant length plus the length of each argument
+        int constantLength = 0;
+        for (String f : fragments) {
+            constantLength += f.length();
+        }
+        MethodHandle length = MethodHandles.dropArguments(
+                MethodHandles.constant(long.class, (long) constantLength), 0, args);
+        MethodType mixType = methodType(long.class, args).insertParameterTypes(0, long.class);
+        for (int i = 0; i < count; i++) {
+            MethodHandle mix = MethodHandles.Lookup.IMPL_LOOKUP.findStatic(STRING_HELPER, "mix",
+                    methodType(long.class, long.class, ptypes[i]));
+            mix = MethodHandles.permuteArguments(mix, mixType, 0, i + 1);
+            length = MethodHandles.foldArguments(mix, length);
+        }
+
+        // write(buf, args...): each fragment and argument in turn, returning
+        // the index following the last argument
+        MethodHandle index = MethodHandles.dropArguments(
+                MethodHandles.constant(int.class, 0), 0, args);
+        index = MethodHandles.dropArguments(index, 0, char[].class);
+        MethodType appendType = methodType(int.class, args)
+                .insertParameterTypes(0, int.class, char[].class);
+        for (int i = 0; i < count; i++) {
+            MethodHandle append = MethodHandles.Lookup.IMPL_LOOKUP.findStatic(STRING_HELPER, "append",
+                    methodType(int.class, int.class, char[].class, String.class, ptypes[i]));
+            append = MethodHandles.insertArguments(append, 2, fragments.get(i));
+            append = MethodHandles.permuteArguments(append, appendType, 0, 1, i + 2);
+            index = MethodHandles.foldArguments(append, index);
+        }
+
+        // The last fragment completes the array allocated for the length
+        MethodHandle mh = MethodHandles.insertArguments(NEW_STRING, 2, fragments.get(count));
+        mh = MethodHandles.dropArguments(mh, 2, args);
+        mh = MethodHandles.foldArguments(mh, index);
+        mh = MethodHandles.foldArguments(mh, MethodHandles.filterReturnValue(length, NEW_ARRAY));
+
+        mh = MethodHandles.filterArguments(mh, 0, filters);
+        return mh.asType(concatType);
+    }
+
+    /**
+     * Returns a method handle converting a value of the given type, which is
+     * {@code float}, {@code double} or a reference type, to a {@code String},
+     * as by the matching {@code String.valueOf} method.
+     */
+    private static MethodHandle stringifier(Class<?> type) throws ReflectiveOperationException {
+        Class<?> from = type.isPrimitive() ? type : Object.class;
+        MethodHandle mh = MethodHandles.Lookup.IMPL_LOOKUP.findStatic(String.class, "valueOf",
+                methodType(String.class, from));
+        return mh.asType(methodType(String.class, type));
+    }
+}
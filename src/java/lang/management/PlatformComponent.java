@@ -25,6 +25,8 @@
 
 package java.lang.management;
 
+import java.lang.ref.WeakReference;
+import java.nio.DirectBufferPool;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -32,6 +34,7 @@ import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import javax.management.MBeanServerConnection;
 import javax.management.ObjectName;
 
@@ -212,7 +215,7 @@ enum PlatformComponent {
         false, // zero or more instances
         new MXBeanFetcher<BufferPoolMXBean>() {
             public List<BufferPoolMXBean> getMXBeans() {
-                return ManagementFactoryHelper.getBufferPoolMXBeans();
+                return getBufferPoolMXBeanList();
             }
         }),
 
@@ -310,6 +313,73 @@ enum PlatformComponent {
         }
     }
 
+    // MXBeans of the java.nio.DirectBufferPool instances, in order to report
+    // each pool under the same, unique ObjectName
+    private static final Map<DirectBufferPool,BufferPoolMXBean> poolMXBeans =
+        new WeakHashMap<>();
+    private static int nextPoolId;
+
+    /*
+     * Returns the buffer pool mxbeans of the platform and of the
+     * java.nio.DirectBufferPool instances.
+     */
+    private static List<BufferPoolMXBean> getBufferPoolMXBeanList() {
+        List<BufferPoolMXBean> list =
+            new ArrayList<>(ManagementFactoryHelper.getBufferPoolMXBeans());
+        synchronized (poolMXBeans) {
+            for (DirectBufferPool pool : DirectBufferPool.getPools()) {
+                BufferPoolMXBean m = poolMXBeans.get(pool);
+                if (m == null) {
+                    m = new PoolMXBean(pool, nextPoolId++);
+                    poolMXBeans.put(pool, m);
+                }
+                list.add(m);
+            }
+        }
+        return list;
+    }
+
+    /*
+     * The mxbean of a java.nio.DirectBufferPool.  The pool is only held
+     * weakly, so that registering the mxbean does not keep it alive; once
+     * the pool has been collected, its usage is reported as zero.
+     */
+    private static class PoolMXBean implements BufferPoolMXBean {
+        private final WeakReference<DirectBufferPool> pool;
+        private final String name;
+        private final ObjectName objname;
+
+        PoolMXBean(DirectBufferPool pool, int id) {
+            this.pool = new WeakReference<>(pool);
+            this.name = pool.getName();
+            this.objname = Util.newObjectName("java.nio:type=BufferPool,name="
+                + ObjectName.quote(name) + ",id=" + id);
+        }
+
+        public ObjectName getObjectName() {
+            return objname;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            DirectBufferPool p = pool.get();
+            return (p != null) ? p.getCount() : 0L;
+        }
+
+        public long getTotalCapacity() {
+            DirectBufferPool p = pool.get();
+            return (p != null) ? p.getTotalCapacity() : 0L;
+        }
+
+        public long getMemoryUsed() {
+            DirectBufferPool p = pool.get();
+            return (p != null) ? p.getMemoryUsed() : 0L;
+        }
+    }
+
     private final String mxbeanInterfaceName;
     private final String domain;
     private final String type;
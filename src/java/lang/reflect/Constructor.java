@@ -457,7 +457,8 @@ public final class Constructor<T> extends Executable {
             constructorAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newConstructorAccessor(this);
+            tmp = MethodHandleAccessors.newConstructorAccessor(this,
+                    reflectionFactory.newConstructorAccessor(this));
             setConstructorAccessor(tmp);
         }
 
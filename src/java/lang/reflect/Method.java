@@ -561,7 +561,8 @@ public final class Method extends Executable {
             methodAccessor = tmp;
         } else {
             // Otherwise fabricate one and propagate it up to the root
-            tmp = reflectionFactory.newMethodAccessor(this);
+            tmp = MethodHandleAccessors.newMethodAccessor(this,
+                    reflectionFactory.newMethodAccessor(this));
             setMethodAccessor(tmp);
         }
 
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.lang.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import sun.misc.Unsafe;
+import sun.misc.VM;
+import sun.reflect.CallerSensitive;
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.MethodAccessor;
+
+/**
+ * Method and constructor accessors backed by direct method handles.
+ *
+ * <p>By default a {@code Method} or {@code Constructor} is invoked through
+ * a native accessor for its first invocations and then "inflates" to an
+ * accessor class generated for that member.  When enabled with
+ * {@code -Dsun.reflect.useMethodHandleAccessors=true}, the native
+ * accessor is instead replaced, before it inflates, by an accessor that
+ * invokes a method handle for the member.  No class is generated per
+ * member, and the invocation can be inlined by the JIT compiler when the
+ * accessor is.
+ *
+ * <p>Caller-sensitive methods keep the default accessors, as the method
+ * handle frames would be seen as their caller; so do constructors of
+ * abstract classes, which the default accessors reject, and the
+ * signature polymorphic methods of {@code MethodHandle}.
+ */
+final class MethodHandleAccessors {
+    private MethodHandleAccessors() { }
+
+    /*
+     * Number of invocations through the native accessor before switching
+     * to the method handle, which is expensive to create.  Capped by the
+     * inflation threshold of the native accessors, read from
+     * sun.reflect.inflationThreshold as ReflectionFactory does, so that
+     * they never generate an accessor class.
+     */
+    private static final int MAX_SWITCH_THRESHOLD = 8;
+
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+
+    private static volatile boolean initted;
+    private static boolean enabled;
+    private static int switchThreshold = MAX_SWITCH_THRESHOLD;
+
+    private static MethodHandles.Lookup implLookup;
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static boolean enabled() {
+        if (initted) return enabled;
+        // Reflection is used before the system properties are set up
+        if (!VM.isBooted()) return false;
+        AccessController.doPrivileged(new PrivilegedAction<Void>() {
+            public Void run() {
+                String val = System.getProperty("sun.reflect.useMethodHandleAccessors");
+                enabled = "true".equals(val);
+                val = System.getProperty("sun.reflect.inflationThreshold");
+                if (val != null) {
+                    try {
+                        int inflationThreshold = Integer.parseInt(val);
+                        switchThreshold = Math.max(0, Math.min(MAX_SWITCH_THRESHOLD,
+                                                               inflationThreshold));
+                    } catch (NumberFormatException e) {
+                        // rejected by ReflectionFactory
+                    }
+                }
+                return null;
+            }
+        });
+        initted = true;
+        return enabled;
+    }
+
+    private static synchronized MethodHandles.Lookup implLookup() {
+        if (implLookup == null) {
+            implLookup = AccessController.doPrivileged(
+                new PrivilegedAction<MethodHandles.Lookup>() {
+                    public MethodHandles.Lookup run() {
+                        try {
+                            Field f = MethodHandles.Lookup.class.getDeclaredField("IMPL_LOOKUP");
+                            f.setAccessible(true);
+                            return (MethodHandles.Lookup) f.get(null);
+                        } catch (ReflectiveOperationException e) {
+                            throw new InternalError(e);
+                        }
+                    }
+                });
+        }
+        return implLookup;
+    }
+
+    /**
+     * Returns an accessor for the given method that switches to a method
+     * handle, or the given default accessor if method handle accessors are
+     * disabled or not applicable.
+     */
+    static MethodAccessor newMethodAccessor(Method m, MethodAccessor nativeAccessor) {
+        if (!enabled()
+            || m.getDeclaringClass() == MethodHandle.class  // signature polymorphic
+            || m.isAnnotationPresent(CallerSensitive.class))
+            return nativeAccessor;
+        return new SwitchingMethodAccessor(m, nativeAccessor);
+    }
+
+    /**
+     * Returns an accessor for the given constructor that switches to a
+     * method handle, or the given default accessor if method handle
+     * accessors are disabled or not applicable.
+     */
+    static ConstructorAccessor newConstructorAccessor(Constructor<?> c,
+                                                      ConstructorAccessor nativeAccessor) {
+        Class<?> declaringClass = c.getDeclaringClass();
+        if (!enabled()
+            || Modifier.isAbstract(declaringClass.getModifiers())
+            || declaringClass == Class.class)
+            return nativeAccessor;
+        return new SwitchingConstructorAccessor(c, nativeAccessor);
+    }
+
+    private static final class SwitchingMethodAccessor implements MethodAccessor {
+        private final Method method;
+        private volatile MethodAccessor delegate;
+        private int count;
+
+        SwitchingMethodAccessor(Method method, MethodAccessor nativeAccessor) {
+            this.method = method;
+            this.delegate = nativeAccessor;
+        }
+
+        public Object invoke(Object obj, Object[] args)
+            throws IllegalArgumentException, InvocationTargetException
+        {
+            MethodAccessor d = delegate;
+            if (!(d instanceof MethodHandleMethodAccessor) && ++count > switchThreshold) {
+                delegate = d = new MethodHandleMethodAccessor(method);
+            }
+            return d.invoke(obj, args);
+        }
+    }
+
+    private static final class SwitchingConstructorAccessor implements ConstructorAccessor {
+        private final Constructor<?> constructor;
+        private volatile ConstructorAccessor delegate;
+        private int count;
+
+        SwitchingConstructorAccessor(Constructor<?> constructor,
+                                     ConstructorAccessor nativeAccessor) {
+            this.constructor = constructor;
+            this.delegate = nativeAccessor;
+        }
+
+        public Object newInstance(Object[] args)
+            throws InstantiationException, IllegalArgumentException,
+                   InvocationTargetException
+        {
+            ConstructorAccessor d = delegate;
+            if (!(d instanceof MethodHandleConstructorAccessor) && ++count > switchThreshold) {
+                delegate = d = new MethodHandleConstructorAccessor(constructor);
+            }
+            return d.newInstance(args);
+        }
+    }
+
+    private static final class MethodHandleMethodAccessor implements MethodAccessor {
+        private final Class<?> declaringClass;
+        private final Class<?>[] parameterTypes;
+        private final boolean isStatic;
+        // (Object receiver, Object[] args)Object
+        private final MethodHandle target;
+        // whether declaringClass is known to be initialized
+        private volatile boolean initialized;
+
+        MethodHandleMethodAccessor(Method m) {
+            declaringClass = m.getDeclaringClass();
+            parameterTypes = m.getParameterTypes();
+            isStatic = Modifier.isStatic(m.getModifiers());
+            MethodHandle mh;
+            try {
+                mh = implLookup().unreflect(m);
+            } catch (IllegalAccessException e) {
+                throw new InternalError(e);
+            }
+            mh = mh.asType(mh.type().generic())
+                   .asSpreader(Object[].class, parameterTypes.length);
+            if (isStatic)
+                mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            target = mh;
+        }
+
+        public Object invoke(Object obj, Object[] args)
+            throws IllegalArgumentException, InvocationTargetException
+        {
+            if (isStatic) {
+                if (!initialized)
+                    initialized = ensureClassInitialized(declaringClass);
+            } else {
+                if (obj == null)
+                    throw new NullPointerException();
+                if (!declaringClass.isInstance(obj))
+                    throw new IllegalArgumentException(
+                        "object is not an instance of declaring class");
+            }
+            Object[] checked = checkArguments(parameterTypes, args);
+            try {
+                return target.invokeExact(obj, checked);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    private static final class MethodHandleConstructorAccessor implements ConstructorAccessor {
+        private final Class<?> declaringClass;
+        private final Class<?>[] parameterTypes;
+        // (Object[] args)Object
+        private final MethodHandle target;
+        // whether declaringClass is known to be initialized
+        private volatile boolean initialized;
+
+        MethodHandleConstructorAccessor(Constructor<?> c) {
+            declaringClass = c.getDeclaringClass();
+            parameterTypes = c.getParameterTypes();
+            MethodHandle mh;
+            try {
+                mh = implLookup().unreflectConstructor(c);
+            } catch (IllegalAccessException e) {
+                throw new InternalError(e);
+            }
+            target = mh.asType(mh.type().generic())
+                       .asSpreader(Object[].class, parameterTypes.length);
+        }
+
+        public Object newInstance(Object[] args)
+            throws InstantiationException, IllegalArgumentException,
+                   InvocationTargetException
+        {
+            if (!initialized)
+                initialized = ensureClassInitialized(declaringClass);
+            Object[] checked = checkArguments(parameterTypes, args);
+            try {
+                return target.invokeExact(checked);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        }
+    }
+
+    /**
+     * Initializes the given class if needed, letting initialization errors
+     * escape unwrapped as the native accessors do.  Returns true if the
+     * class is now fully initialized, so that the caller need not check
+     * again; it is not while the current thread is initializing it.
+     */
+    private static boolean ensureClassInitialized(Class<?> c) {
+        UNSAFE.ensureClassInitialized(c);
+        return !UNSAFE.shouldBeInitialized(c);
+    }
+
+    /**
+     * Checks the arguments of a reflective invocation as the native
+     * accessors do, so that any exception thrown by the method handle
+     * comes from the invoked member.  Arguments of primitive parameters are
+     * widened to the exact wrapper type, which the method handle unboxes.
+     */
+    private static Object[] checkArguments(Class<?>[] ptypes, Object[] args) {
+        if (args == null)
+            args = NO_ARGS;
+        if (args.length != ptypes.length)
+            throw new IllegalArgumentException("wrong number of arguments");
+        Object[] checked = args;
+        for (int i = 0; i < ptypes.length; i++) {
+            Class<?> p = ptypes[i];
+            Object a = args[i];
+            if (p.isPrimitive()) {
+                Object w = widen(p, a);
+                if (w != a) {
+                    if (checked == args)
+                        checked = args.clone();
+                    checked[i] = w;
+                }
+            } else if (a != null && !p.isInstance(a)) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+        return checked;
+    }
+
+    /**
+     * Converts a boxed argument to the wrapper of the primitive parameter
+     * type p by a widening primitive conversion.
+     */
+    private static Object widen(Class<?> p, Object a) {
+        if (a == null)
+            throw new IllegalArgumentException();
+        Class<?> w = a.getClass();
+        if (p == boolean.class) {
+            if (w == Boolean.class) return a;
+        } else if (p == char.class) {
+            if (w == Character.class) return a;
+        } else if (p == byte.class) {
+            if (w == Byte.class) return a;
+        } else if (p == short.class) {
+            if (w == Short.class) return a;
+            if (w == Byte.class) return (short) (Byte) a;
+        } else if (p == int.class) {
+            if (w == Integer.class) return a;
+            if (w == Byte.class || w == Short.class) return ((Number) a).intValue();
+            if (w == Character.class) return (int) (Character) a;
+        } else if (p == long.class) {
+            if (w == Long.class) return a;
+            if (w == Integer.class || w == Byte.class || w == Short.class)
+                return ((Number) a).longValue();
+            if (w == Character.class) return (long) (Character) a;
+        } else if (p == float.class) {
+            if (w == Float.class) return a;
+            if (w == Long.class || w == Integer.class || w == Byte.class || w == Short.class)
+                return ((Number) a).floatValue();
+            if (w == Character.class) return (float) (Character) a;
+        } else if (p == double.class) {
+            if (w == Double.class) return a;
+            if (w == Float.class || w == Long.class || w == Integer.class
+                || w == Byte.class || w == Short.class)
+                return ((Number) a).doubleValue();
+            if (w == Character.class) return (double) (Character) a;
+        }
+        throw new IllegalArgumentException("argument type mismatch");
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Cleaner;
+import sun.misc.Unsafe;
+
+
+/**
+ * A pool of direct byte buffers which are released explicitly.
+ *
+ * <p> {@link ByteBuffer#allocateDirect ByteBuffer.allocateDirect} allocates
+ * and zeroes fresh native memory for every buffer, and the memory is only
+ * freed once the garbage collector has found the buffer unreachable.  When
+ * direct memory is scarce, allocation therefore waits for the collector,
+ * which is expensive for applications that allocate many short-lived direct
+ * buffers.  The buffers of a pool are instead returned to the pool by
+ * {@link #release release}, and their memory is reused by subsequent
+ * allocations.
+ *
+ * <p> Capacities up to the pool's maximum pooled capacity are rounded up to
+ * a power of two, at least 64 bytes, and each such size class is pooled
+ * separately.  Freed memory is kept in one of several arenas, to which
+ * threads are assigned by their identifiers, so that threads rarely contend
+ * for the same arena.  At most the pool's maximum retained memory is kept
+ * by the pool; memory freed beyond this, and the memory of buffers larger
+ * than the maximum pooled capacity, is returned to the operating system
+ * immediately.  All memory of a pool is accounted against the limit set by
+ * {@code -XX:MaxDirectMemorySize}, like that of any other direct buffer.
+ *
+ * <p> A buffer which becomes unreachable without having been released is
+ * a leak; its memory is reclaimed by the pool once the garbage collector
+ * has found it unreachable, and the leak is counted by {@link
+ * #getLeakCount getLeakCount}.
+ *
+ * <p> A pool which is no longer used should be {@link #close closed}, which
+ * returns the memory kept for reuse to the operating system.  The memory
+ * kept by a pool which is never closed is returned once the garbage
+ * collector has found the pool, and all buffers allocated by it,
+ * unreachable.
+ *
+ * <p> The contents of a newly allocated buffer are undefined.  A buffer
+ * must not be used, nor any buffer derived from it by slicing or
+ * duplication, once it has been released: its memory may already belong to
+ * another buffer.
+ *
+ * <p> Pools are safe for use by multiple concurrent threads.  The pools
+ * which are neither closed nor unreachable are reported, besides the
+ * platform's direct and mapped buffer pools, as {@link
+ * java.lang.management.BufferPoolMXBean BufferPoolMXBean}s.
+ *
+ * @since 1.8
+ */
+
+public final class DirectBufferPool {
+
+    private static final Unsafe unsafe = Bits.unsafe();
+
+    // The smallest size class is 1 << MIN_SHIFT bytes
+    private static final int MIN_SHIFT = 6;
+
+    // Pools which have not yet been closed or collected, for monitoring
+    private static final Map<DirectBufferPool,Boolean> pools =
+        Collections.synchronizedMap(new WeakHashMap<DirectBufferPool,Boolean>());
+
+    private final String name;
+    private final int maxPooledCapacity;
+    private final long maxRetainedMemory;
+    private final Arena[] arenas;
+    private final Reclaimer reclaimer;
+    private final Cleaner cleaner;
+    private volatile boolean closed;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalCapacity = new AtomicLong();
+    private final AtomicLong memoryUsed = new AtomicLong();
+    private final AtomicLong retainedMemory = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param  name
+     *         The name of the pool, as reported by {@link #getName getName}
+     *
+     * @param  maxPooledCapacity
+     *         The largest capacity of buffers whose memory is pooled
+     *
+     * @param  maxRetainedMemory
+     *         The maximum amount of freed memory, in bytes, which the pool
+     *         keeps for reuse
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code maxPooledCapacity} or {@code maxRetainedMemory} is
+     *          negative, or if {@code maxPooledCapacity} is greater than
+     *          {@code 1 << 30}
+     *
+     * @throws  NullPointerException
+     *          If {@code name} is {@code null}
+     */
+    public DirectBufferPool(String name, int maxPooledCapacity,
+                            long maxRetainedMemory)
+    {
+        if (maxPooledCapacity < 0 || maxPooledCapacity > (1 << 30))
+            throw new IllegalArgumentException("maxPooledCapacity: "
+                                               + maxPooledCapacity);
+        if (maxRetainedMemory < 0)
+            throw new IllegalArgumentException("maxRetainedMemory: "
+                                               + maxRetainedMemory);
+        this.name = Objects.requireNonNull(name);
+        this.maxPooledCapacity = maxPooledCapacity;
+        this.maxRetainedMemory = maxRetainedMemory;
+        int classes = Math.max(0, sizeClass(maxPooledCapacity) + 1);
+        int n = Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+        arenas = new Arena[n];
+        for (int i = 0; i < n; i++)
+            arenas[i] = new Arena(classes);
+        reclaimer = new Reclaimer(arenas, retainedMemory, memoryUsed);
+        cleaner = Cleaner.create(this, reclaimer);
+        pools.put(this, Boolean.TRUE);
+    }
+
+    /**
+     * Returns the pools which have been created and neither been closed nor
+     * been found unreachable by the garbage collector.
+     *
+     * @return  A list of the pools
+     */
+    public static List<DirectBufferPool> getPools() {
+        synchronized (pools) {
+            return new ArrayList<>(pools.keySet());
+        }
+    }
+
+    /**
+     * Allocates a direct byte buffer from this pool.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, its byte order will be {@link
+     * ByteOrder#BIG_ENDIAN BIG_ENDIAN}, and the values of its elements are
+     * undefined.  The buffer must be returned to this pool with {@link
+     * #release release} once it is no longer used.
+     *
+     * @param  capacity
+     *         The new buffer's capacity, in bytes
+     *
+     * @return  The new byte buffer
+     *
+     * @throws  IllegalArgumentException
+     *          If the {@code capacity} is a negative integer
+     *
+     * @throws  IllegalStateException
+     *          If this pool is closed
+     *
+     * @throws  OutOfMemoryError
+     *          If the direct memory of the pool cannot be allocated
+     */
+    public ByteBuffer allocate(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity: " + capacity);
+        if (closed)
+            throw new IllegalStateException("Pool closed");
+        int sc = (capacity <= maxPooledCapacity) ? sizeClass(capacity) : -1;
+        long size;
+        long address = 0;
+        if (sc >= 0) {
+            size = 1L << (sc + MIN_SHIFT);
+            address = arena().poll(sc);
+            if (address != 0)
+                retainedMemory.addAndGet(-size);
+        } else {
+            size = Math.max(1L, (long)capacity);
+        }
+        if (address == 0)
+            address = allocateMemory(size);
+        Chunk chunk = new Chunk(this, address, size, sc, capacity);
+        ByteBuffer bb = new DirectByteBuffer(address, capacity, chunk);
+        chunk.cleaner = Cleaner.create(bb, chunk);
+        count.incrementAndGet();
+        totalCapacity.addAndGet(capacity);
+        return bb;
+    }
+
+    /**
+     * Returns a buffer allocated by this pool to the pool.  The buffer, and
+     * any buffer derived from it, must no longer be used.
+     *
+     * @param  buffer
+     *         A buffer returned by {@link #allocate allocate}
+     *
+     * @throws  IllegalArgumentException
+     *          If the buffer was not returned by {@code allocate} of this
+     *          pool
+     *
+     * @throws  IllegalStateException
+     *          If the buffer has already been released
+     */
+    public void release(ByteBuffer buffer) {
+        Object att = (buffer instanceof DirectByteBuffer)
+            ? ((DirectByteBuffer)buffer).attachment() : null;
+        if (!(att instanceof Chunk) || ((Chunk)att).pool != this)
+            throw new IllegalArgumentException(
+                "Buffer was not allocated by this pool");
+        if (!((Chunk)att).release())
+            throw new IllegalStateException("Buffer already released");
+    }
+
+    /**
+     * Returns the memory kept by this pool for reuse to the operating system.
+     */
+    public void trim() {
+        reclaimer.run();
+    }
+
+    /**
+     * Closes this pool.
+     *
+     * <p> The memory kept by this pool for reuse is returned to the
+     * operating system, and no further buffers may be allocated.  Buffers
+     * which are still outstanding may still be released; their memory is
+     * then returned to the operating system rather than kept.  Invoking this
+     * method on a pool which is already closed has no effect.
+     */
+    public void close() {
+        closed = true;
+        pools.remove(this);
+        cleaner.clean();
+    }
+
+    /**
+     * Returns the name of this pool.
+     *
+     * @return  The name of this pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of buffers allocated by this pool which have not
+     * been released or reclaimed.
+     *
+     * @return  The number of outstanding buffers
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the total capacity of the buffers allocated by this pool which
+     * have not been released or reclaimed.
+     *
+     * @return  The total capacity of the outstanding buffers, in bytes
+     */
+    public long getTotalCapacity() {
+        return totalCapacity.get();
+    }
+
+    /**
+     * Returns the amount of direct memory held by this pool, including the
+     * memory kept for reuse.
+     *
+     * @return  The amount of direct memory held by this pool, in bytes
+     */
+    public long getMemoryUsed() {
+        return memoryUsed.get();
+    }
+
+    /**
+     * Returns the amount of freed memory kept by this pool for reuse.
+     *
+     * @return  The amount of memory kept for reuse, in bytes
+     */
+    public long getRetainedMemory() {
+        return retainedMemory.get();
+    }
+
+    /**
+     * Returns the number of buffers which were found unreachable by the
+     * garbage collector without having been released.
+     *
+     * @return  The number of leaked buffers
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    public String toString() {
+        return getClass().getName() + "[name=" + name
+            + " count=" + getCount()
+            + " totalCapacity=" + getTotalCapacity()
+            + " memoryUsed=" + getMemoryUsed() + "]";
+    }
+
+    // Returns the size class of the given capacity
+    private static int sizeClass(int capacity) {
+        if (capacity <= (1 << MIN_SHIFT))
+            return 0;
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    private Arena arena() {
+        return arenas[(int)Thread.currentThread().getId() & (arenas.length - 1)];
+    }
+
+    private long allocateMemory(long size) {
+        Bits.reserveMemory(size, (int)size);
+        long address;
+        try {
+            address = unsafe.allocateMemory(size);
+        } catch (OutOfMemoryError x) {
+            Bits.unreserveMemory(size, (int)size);
+            throw x;
+        }
+        memoryUsed.addAndGet(size);
+        return address;
+    }
+
+    private static void freeMemory(long address, long size,
+                                   AtomicLong memoryUsed) {
+        unsafe.freeMemory(address);
+        Bits.unreserveMemory(size, (int)size);
+        memoryUsed.addAndGet(-size);
+    }
+
+    // Invoked exactly once for every chunk, when its buffer is released or
+    // found unreachable; must not throw
+    private void free(Chunk chunk) {
+        count.decrementAndGet();
+        totalCapacity.addAndGet(-chunk.capacity);
+        if (chunk.sizeClass >= 0 && !closed) {
+            if (retainedMemory.addAndGet(chunk.size) <= maxRetainedMemory) {
+                try {
+                    arena().offer(chunk.sizeClass, chunk.address);
+                    // The pool may have been closed, and drained, meanwhile
+                    if (closed)
+                        reclaimer.run();
+                    return;
+                } catch (OutOfMemoryError x) {
+                    // Free the memory instead
+                }
+            }
+            retainedMemory.addAndGet(-chunk.size);
+        }
+        freeMemory(chunk.address, chunk.size, memoryUsed);
+    }
+
+    /**
+     * Returns the memory kept in the arenas of a pool to the operating
+     * system.  It is run by trim and close, and by the pool's cleaner if the
+     * pool is found unreachable without having been closed, so it must not
+     * refer to the pool itself.
+     */
+    private static final class Reclaimer implements Runnable {
+        private final Arena[] arenas;
+        private final AtomicLong retainedMemory;
+        private final AtomicLong memoryUsed;
+
+        Reclaimer(Arena[] arenas, AtomicLong retainedMemory,
+                  AtomicLong memoryUsed) {
+            this.arenas = arenas;
+            this.retainedMemory = retainedMemory;
+            this.memoryUsed = memoryUsed;
+        }
+
+        public void run() {
+            for (Arena a : arenas) {
+                long[][] free = a.drain();
+                for (int sc = 0; sc < free.length; sc++) {
+                    long size = 1L << (sc + MIN_SHIFT);
+                    for (long address : free[sc]) {
+                        retainedMemory.addAndGet(-size);
+                        freeMemory(address, size, memoryUsed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The memory of a buffer, attached to the buffer.  It is run by the
+     * buffer's cleaner, either explicitly on release or by the reference
+     * handler if the buffer is found unreachable.
+     */
+    private static final class Chunk implements Runnable {
+        private static final int LIVE = 0, RELEASED = 1, LEAKED = 2;
+        private static final AtomicIntegerFieldUpdater<Chunk> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "state");
+
+        final DirectBufferPool pool;
+        final long address;
+        final long size;
+        final int sizeClass;
+        final int capacity;
+        Cleaner cleaner;
+        private volatile int state;
+
+        Chunk(DirectBufferPool pool, long address, long size, int sizeClass,
+              int capacity) {
+            this.pool = pool;
+            this.address = address;
+            this.size = size;
+            this.sizeClass = sizeClass;
+            this.capacity = capacity;
+        }
+
+        boolean release() {
+            if (!STATE.compareAndSet(this, LIVE, RELEASED))
+                return false;
+            cleaner.clean();
+            return true;
+        }
+
+        public void run() {
+            if (STATE.compareAndSet(this, LIVE, LEAKED))
+                pool.leakCount.incrementAndGet();
+            pool.free(this);
+        }
+    }
+
+    /**
+     * Freed memory of each size class, as stacks of addresses.
+     */
+    private static final class Arena {
+        private final long[][] free;
+        private final int[] sizes;
+
+        Arena(int classes) {
+            free = new long[classes][];
+            sizes = new int[classes];
+            for (int sc = 0; sc < classes; sc++)
+                free[sc] = new long[8];
+        }
+
+        synchronized long poll(int sc) {
+            int n = sizes[sc];
+            if (n == 0)
+                return 0;
+            sizes[sc] = --n;
+            return free[sc][n];
+        }
+
+        synchronized void offer(int sc, long address) {
+            int n = sizes[sc];
+            if (n == free[sc].length)
+                free[sc] = Arrays.copyOf(free[sc], n << 1);
+            free[sc][n] = address;
+            sizes[sc] = n + 1;
+        }
+
+        synchronized long[][] drain() {
+            long[][] drained = new long[free.length][];
+            for (int sc = 0; sc < free.length; sc++) {
+                drained[sc] = Arrays.copyOf(free[sc], sizes[sc]);
+                sizes[sc] = 0;
+            }
+            return drained;
+        }
+    }
+}
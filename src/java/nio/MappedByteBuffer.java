@@ -112,6 +112,19 @@ public abstract class MappedByteBuffer
         return (long)capacity() + mappingOffset;
     }
 
+    // Returns the distance (in bytes) of the given index from the page
+    // aligned address below it.
+    private long mappingOffset(int index) {
+        int ps = Bits.pageSize();
+        long offset = (address + index) % ps;
+        return (offset >= 0) ? offset : (ps + offset);
+    }
+
+    private void checkRegion(int index, int length) {
+        if ((index < 0) || (length < 0) || (index > capacity() - length))
+            throw new IndexOutOfBoundsException();
+    }
+
     /**
      * Tells whether or not this buffer's content is resident in physical
      * memory.
@@ -205,6 +218,61 @@ public abstract class MappedByteBuffer
         return this;
     }
 
+    /**
+     * Forces any changes made to a region of this buffer's content to be
+     * written to the storage device containing the mapped file.  The region
+     * starts at the given index and has the given length.
+     *
+     * <p> This method behaves as {@link #force()}, except that only the
+     * pages spanned by the region are written, which is cheaper than forcing
+     * the whole buffer if only a small part of a large buffer has been
+     * changed. </p>
+     *
+     * @param  index
+     *         The index of the first byte of the region
+     *
+     * @param  length
+     *         The length of the region, in bytes
+     *
+     * @return  This buffer
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code index} or {@code length} is negative, or if
+     *          {@code index + length} is greater than this buffer's capacity
+     *
+     * @since 1.8
+     */
+    public final MappedByteBuffer force(int index, int length) {
+        checkMapped();
+        checkRegion(index, length);
+        if ((address != 0) && (length != 0)) {
+            long offset = mappingOffset(index);
+            force0(fd, address + index - offset, length + offset);
+        }
+        return this;
+    }
+
+    // Range versions of load and isLoaded, for MappedSegment
+
+    final void load(int index, int length) {
+        checkMapped();
+        checkRegion(index, length);
+        if ((address != 0) && (length != 0)) {
+            long offset = mappingOffset(index);
+            load0(address + index - offset, length + offset);
+        }
+    }
+
+    final boolean isLoaded(int index, int length) {
+        checkMapped();
+        checkRegion(index, length);
+        if ((address == 0) || (length == 0))
+            return true;
+        long offset = mappingOffset(index);
+        long len = length + offset;
+        return isLoaded0(address + index - offset, len, Bits.pageCount(len));
+    }
+
     private native boolean isLoaded0(long address, long length, int pageCount);
     private native void load0(long address, long length);
     private native void force0(FileDescriptor fd, long address, long length);
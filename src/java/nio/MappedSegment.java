@@ -0,0 +1,813 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+
+/**
+ * A memory-mapped region of a file, indexed by {@code long} offsets.
+ *
+ * <p> A {@link MappedByteBuffer} is indexed by {@code int} and can therefore
+ * map at most {@link Integer#MAX_VALUE} bytes, so that a large file must be
+ * mapped as many buffers.  A mapped segment maps a region of any size and
+ * provides absolute get and put methods for the primitive types at
+ * {@code long} offsets within it.  It is created by the {@link #map map}
+ * method.
+ *
+ * <p> The region is mapped as a sequence of {@code MappedByteBuffer}s of
+ * 1GB each, where consecutive buffers overlap by seven bytes so that every
+ * primitive value lies entirely within one buffer.  The mapping remains
+ * valid until the segment is {@link #unmap unmapped} or, if it is never
+ * unmapped, until it is garbage-collected.
+ *
+ * <p> Multi-byte values are read and written in the segment's byte {@link
+ * #order() order}, which is initially {@link ByteOrder#BIG_ENDIAN
+ * BIG_ENDIAN}.
+ *
+ * <p> Mapped segments are safe for use by multiple concurrent threads,
+ * except that a segment must not be accessed by any thread while, or after,
+ * it is being unmapped, nor its byte order changed while it is being
+ * accessed.
+ *
+ * @since 1.8
+ */
+
+public final class MappedSegment {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = (int)CHUNK_SIZE - 1;
+
+    // Overlap between consecutive buffers; the width of the largest
+    // primitive value less one
+    private static final int OVERLAP = 7;
+
+    private final long size;
+    private final boolean readOnly;
+    private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+    // The mapped buffers; null once unmapped
+    private volatile MappedByteBuffer[] chunks;
+
+    private MappedSegment(MappedByteBuffer[] chunks, long size,
+                          boolean readOnly)
+    {
+        this.chunks = chunks;
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Maps a region of the given channel's file directly into memory.
+     *
+     * <p> The mode and the effect of mapping past the end of the file are as
+     * specified by {@link FileChannel#map FileChannel.map}, of which this
+     * method invokes as many as the size of the region requires. </p>
+     *
+     * @param  channel
+     *         The channel of the file to be mapped
+     *
+     * @param  mode
+     *         The mapping mode
+     *
+     * @param  position
+     *         The position within the file at which the mapped region
+     *         is to start; must be non-negative
+     *
+     * @param  size
+     *         The size of the region to be mapped; must be non-negative
+     *
+     * @return  The mapped segment
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code position} or {@code size} is negative
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs, or as specified by {@code
+     *          FileChannel.map}
+     *
+     * @see FileChannel#map
+     */
+    public static MappedSegment map(FileChannel channel,
+                                    FileChannel.MapMode mode,
+                                    long position, long size)
+        throws IOException
+    {
+        Objects.requireNonNull(channel);
+        Objects.requireNonNull(mode);
+        if (position < 0L)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0L)
+            throw new IllegalArgumentException("Negative size");
+        if (position + size < 0)
+            throw new IllegalArgumentException("Position + size overflow");
+        int n = (int)((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                long offset = (long)i << CHUNK_SHIFT;
+                long length = Math.min(CHUNK_SIZE + OVERLAP, size - offset);
+                chunks[i] = channel.map(mode, position + offset, length);
+            }
+        } catch (IOException | RuntimeException | Error x) {
+            unmap(chunks);
+            throw x;
+        }
+        return new MappedSegment(chunks, size,
+                                 mode == FileChannel.MapMode.READ_ONLY);
+    }
+
+    /**
+     * Returns the size of this segment.
+     *
+     * @return  The size of this segment, in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Tells whether or not this segment is read-only.
+     *
+     * @return  {@code true} if, and only if, this segment is read-only
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Retrieves this segment's byte order.
+     *
+     * @return  This segment's byte order
+     */
+    public ByteOrder order() {
+        return order;
+    }
+
+    /**
+     * Modifies this segment's byte order.
+     *
+     * @param  bo
+     *         The new byte order
+     *
+     * @return  This segment
+     */
+    public MappedSegment order(ByteOrder bo) {
+        Objects.requireNonNull(bo);
+        for (MappedByteBuffer c : chunks())
+            c.order(bo);
+        order = bo;
+        return this;
+    }
+
+    private MappedByteBuffer[] chunks() {
+        MappedByteBuffer[] cs = chunks;
+        if (cs == null)
+            throw new IllegalStateException("Segment is unmapped");
+        return cs;
+    }
+
+    // Returns the buffer holding the value of the given width at the given
+    // offset, after checking that the value lies within this segment
+    private MappedByteBuffer chunk(long offset, int width) {
+        MappedByteBuffer[] cs = chunks();
+        if ((offset < 0) || (offset > size - width))
+            throw new IndexOutOfBoundsException("Offset " + offset
+                                                + " out of bounds for size "
+                                                + size);
+        return cs[(int)(offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int index(long offset) {
+        return (int)offset & CHUNK_MASK;
+    }
+
+    private void checkRegion(long offset, long length) {
+        if ((offset < 0) || (length < 0) || (offset > size - length))
+            throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Reads the byte at the given offset.
+     *
+     * @param  offset
+     *         The offset from which the byte will be read
+     *
+     * @return  The byte at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public byte get(long offset) {
+        return chunk(offset, 1).get(index(offset));
+    }
+
+    /**
+     * Writes the given byte at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the byte will be written
+     *
+     * @param  b
+     *         The byte value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment put(long offset, byte b) {
+        chunk(offset, 1).put(index(offset), b);
+        return this;
+    }
+
+    /**
+     * Reads the char value at the given offset, composing two bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The char value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus one
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public char getChar(long offset) {
+        return chunk(offset, 2).getChar(index(offset));
+    }
+
+    /**
+     * Writes two bytes containing the given char value, in the current byte
+     * order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The char value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus one
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putChar(long offset, char value) {
+        chunk(offset, 2).putChar(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Reads the short value at the given offset, composing two bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The short value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus one
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public short getShort(long offset) {
+        return chunk(offset, 2).getShort(index(offset));
+    }
+
+    /**
+     * Writes two bytes containing the given short value, in the current byte
+     * order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The short value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus one
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putShort(long offset, short value) {
+        chunk(offset, 2).putShort(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Reads the int value at the given offset, composing four bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The int value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus three
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public int getInt(long offset) {
+        return chunk(offset, 4).getInt(index(offset));
+    }
+
+    /**
+     * Writes four bytes containing the given int value, in the current byte
+     * order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The int value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus three
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putInt(long offset, int value) {
+        chunk(offset, 4).putInt(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Reads the float value at the given offset, composing four bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The float value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus three
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public float getFloat(long offset) {
+        return chunk(offset, 4).getFloat(index(offset));
+    }
+
+    /**
+     * Writes four bytes containing the given float value, in the current
+     * byte order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The float value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus three
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putFloat(long offset, float value) {
+        chunk(offset, 4).putFloat(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Reads the long value at the given offset, composing eight bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The long value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus seven
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public long getLong(long offset) {
+        return chunk(offset, 8).getLong(index(offset));
+    }
+
+    /**
+     * Writes eight bytes containing the given long value, in the current
+     * byte order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The long value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus seven
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putLong(long offset, long value) {
+        chunk(offset, 8).putLong(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Reads the double value at the given offset, composing eight bytes
+     * according to the current byte order.
+     *
+     * @param  offset
+     *         The offset from which the bytes will be read
+     *
+     * @return  The double value at the given offset
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus seven
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public double getDouble(long offset) {
+        return chunk(offset, 8).getDouble(index(offset));
+    }
+
+    /**
+     * Writes eight bytes containing the given double value, in the current
+     * byte order, at the given offset.
+     *
+     * @param  offset
+     *         The offset at which the bytes will be written
+     *
+     * @param  value
+     *         The double value to be written
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If {@code offset} is negative or not smaller than the
+     *          segment's size, minus seven
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment putDouble(long offset, double value) {
+        chunk(offset, 8).putDouble(index(offset), value);
+        return this;
+    }
+
+    /**
+     * Copies bytes starting at the given offset of this segment into the
+     * given array.
+     *
+     * @param  offset
+     *         The offset of the first byte to be read
+     *
+     * @param  dst
+     *         The array into which bytes are to be written
+     *
+     * @param  off
+     *         The offset within the array of the first byte to be written
+     *
+     * @param  len
+     *         The number of bytes to be copied
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the offsets and length do not hold
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment get(long offset, byte[] dst, int off, int len) {
+        Buffer.checkBounds(off, len, dst.length);
+        MappedByteBuffer[] cs = chunks();
+        checkRegion(offset, len);
+        while (len > 0) {
+            int i = index(offset);
+            int n = (int)Math.min(len, CHUNK_SIZE - i);
+            ByteBuffer bb = cs[(int)(offset >>> CHUNK_SHIFT)].duplicate();
+            bb.position(i);
+            bb.get(dst, off, n);
+            offset += n;
+            off += n;
+            len -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Copies bytes from the given array into this segment, starting at the
+     * given offset of this segment.
+     *
+     * @param  offset
+     *         The offset at which the first byte is to be written
+     *
+     * @param  src
+     *         The array from which bytes are to be read
+     *
+     * @param  off
+     *         The offset within the array of the first byte to be read
+     *
+     * @param  len
+     *         The number of bytes to be copied
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the offsets and length do not hold
+     *
+     * @throws  ReadOnlyBufferException
+     *          If this segment is read-only
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment put(long offset, byte[] src, int off, int len) {
+        Buffer.checkBounds(off, len, src.length);
+        MappedByteBuffer[] cs = chunks();
+        checkRegion(offset, len);
+        if (readOnly)
+            throw new ReadOnlyBufferException();
+        while (len > 0) {
+            int i = index(offset);
+            int n = (int)Math.min(len, CHUNK_SIZE - i);
+            ByteBuffer bb = cs[(int)(offset >>> CHUNK_SHIFT)].duplicate();
+            bb.position(i);
+            bb.put(src, off, n);
+            offset += n;
+            off += n;
+            len -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Tells whether or not the content of a region of this segment is
+     * resident in physical memory.  The result is a hint, as specified by
+     * {@link MappedByteBuffer#isLoaded MappedByteBuffer.isLoaded}.
+     *
+     * @param  offset
+     *         The offset of the region
+     *
+     * @param  length
+     *         The length of the region, in bytes
+     *
+     * @return  {@code true} if it is likely that the region's content is
+     *          resident in physical memory
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the region does not lie within this segment
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public boolean isLoaded(long offset, long length) {
+        MappedByteBuffer[] cs = chunks();
+        checkRegion(offset, length);
+        while (length > 0) {
+            int i = index(offset);
+            int n = (int)Math.min(length, CHUNK_SIZE - i);
+            if (!cs[(int)(offset >>> CHUNK_SHIFT)].isLoaded(i, n))
+                return false;
+            offset += n;
+            length -= n;
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether or not the content of this segment is resident in
+     * physical memory.
+     *
+     * @return  {@code true} if it is likely that this segment's content is
+     *          resident in physical memory
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     *
+     * @see MappedByteBuffer#isLoaded
+     */
+    public boolean isLoaded() {
+        return isLoaded(0, size);
+    }
+
+    /**
+     * Advises the operating system that the content of a region of this
+     * segment will be needed soon, so that it may start to read the
+     * region into physical memory.  Unlike {@link #load()}, this method
+     * does not wait for the content to be loaded.
+     *
+     * @param  offset
+     *         The offset of the region
+     *
+     * @param  length
+     *         The length of the region, in bytes
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the region does not lie within this segment
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment load(long offset, long length) {
+        MappedByteBuffer[] cs = chunks();
+        checkRegion(offset, length);
+        while (length > 0) {
+            int i = index(offset);
+            int n = (int)Math.min(length, CHUNK_SIZE - i);
+            cs[(int)(offset >>> CHUNK_SHIFT)].load(i, n);
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Loads this segment's content into physical memory, as specified by
+     * {@link MappedByteBuffer#load MappedByteBuffer.load}.
+     *
+     * @return  This segment
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment load() {
+        for (MappedByteBuffer c : chunks())
+            c.load();
+        return this;
+    }
+
+    /**
+     * Forces any changes made to a region of this segment's content to be
+     * written to the storage device containing the mapped file, as
+     * specified by {@link MappedByteBuffer#force(int,int)
+     * MappedByteBuffer.force}.
+     *
+     * @param  offset
+     *         The offset of the region
+     *
+     * @param  length
+     *         The length of the region, in bytes
+     *
+     * @return  This segment
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the region does not lie within this segment
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment force(long offset, long length) {
+        MappedByteBuffer[] cs = chunks();
+        checkRegion(offset, length);
+        while (length > 0) {
+            int i = index(offset);
+            int n = (int)Math.min(length, CHUNK_SIZE - i);
+            cs[(int)(offset >>> CHUNK_SHIFT)].force(i, n);
+            offset += n;
+            length -= n;
+        }
+        return this;
+    }
+
+    /**
+     * Forces any changes made to this segment's content to be written to the
+     * storage device containing the mapped file, as specified by {@link
+     * MappedByteBuffer#force() MappedByteBuffer.force}.
+     *
+     * @return  This segment
+     *
+     * @throws  IllegalStateException
+     *          If this segment is unmapped
+     */
+    public MappedSegment force() {
+        return force(0, size);
+    }
+
+    /**
+     * Unmaps this segment, releasing its mapping without waiting for it to
+     * be garbage-collected.  Changes which have not been {@link #force()
+     * forced} are written to the file as the operating system sees fit.
+     * Invoking this method on an unmapped segment has no effect.
+     *
+     * <p> No thread may access this segment, or be accessing it, once this
+     * method has been invoked: the memory of the mapping may be reused for
+     * other purposes, so that such accesses could read or corrupt unrelated
+     * data or crash the virtual machine. </p>
+     */
+    public void unmap() {
+        MappedByteBuffer[] cs;
+        synchronized (this) {
+            cs = chunks;
+            chunks = null;
+        }
+        if (cs != null)
+            unmap(cs);
+    }
+
+    private static void unmap(MappedByteBuffer[] chunks) {
+        for (MappedByteBuffer c : chunks) {
+            if (c != null) {
+                Cleaner cl = ((DirectBuffer)c).cleaner();
+                if (cl != null)
+                    cl.clean();
+            }
+        }
+    }
+
+    public String toString() {
+        return getClass().getName() + "[size=" + size
+            + (readOnly ? " read-only" : "")
+            + (chunks == null ? " unmapped" : "") + "]";
+    }
+}
@@ -35,6 +35,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * An asynchronous channel for reading, writing, and manipulating a file.
@@ -710,6 +712,113 @@ public abstract class AsynchronousFileChannel
      */
     public abstract Future<Integer> read(ByteBuffer dst, long position);
 
+    /**
+     * Reads sequences of bytes from this channel into the given buffers,
+     * each starting at the corresponding file position.
+     *
+     * <p> This method initiates a read into each of the given buffers, as if
+     * by invoking {@link #read(ByteBuffer,long,Object,CompletionHandler)},
+     * and completes the given handler once all of the reads have completed.
+     * The result is an array holding, for each buffer, the number of bytes
+     * read or {@code -1} if its position was greater than or equal to the
+     * file's size at the time that its read was attempted. If any of the
+     * reads fails then the handler's {@link CompletionHandler#failed failed}
+     * method is invoked instead, once all of the reads have completed, with
+     * the first exception, to which any others are added as suppressed
+     * exceptions; the buffers into which reads succeeded have been filled.
+     *
+     * <p> Issuing many independent reads at once, such as the reads of a
+     * random-access workload, lets the channel overlap them. The default
+     * implementation of this method initiates the reads one at a time;
+     * implementations whose I/O facility can submit a batch of operations,
+     * and collect their completions, in a single system call are encouraged
+     * to override it to do so.
+     *
+     * @param   <A>
+     *          The type of the attachment
+     * @param   dsts
+     *          The buffers into which bytes are to be transferred
+     * @param   positions
+     *          The file positions at which the transfers are to begin, one
+     *          for each buffer; must be non-negative
+     * @param   attachment
+     *          The object to attach to the I/O operation; can be {@code null}
+     * @param   handler
+     *          The handler for consuming the result
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are of different lengths, or if any position is
+     *          negative or any buffer is read-only
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @since   1.8
+     */
+    public <A> void read(ByteBuffer[] dsts,
+                         long[] positions,
+                         final A attachment,
+                         final CompletionHandler<int[],? super A> handler)
+    {
+        if (handler == null)
+            throw new NullPointerException("'handler' is null");
+        final int n = dsts.length;
+        if (positions.length != n)
+            throw new IllegalArgumentException("Length mismatch");
+        for (int i = 0; i < n; i++) {
+            if (positions[i] < 0L)
+                throw new IllegalArgumentException("Negative position");
+            if (dsts[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        final int[] results = new int[n];
+        if (n == 0) {
+            handler.completed(results, attachment);
+            return;
+        }
+        class BatchHandler implements CompletionHandler<Integer,Integer> {
+            final AtomicInteger remaining = new AtomicInteger(n);
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            public void completed(Integer result, Integer index) {
+                results[index] = result;
+                done(1);
+            }
+
+            public void failed(Throwable exc, Integer index) {
+                fail(exc, 1);
+            }
+
+            void fail(Throwable exc, int count) {
+                if (!failure.compareAndSet(null, exc) && failure.get() != exc)
+                    failure.get().addSuppressed(exc);
+                done(count);
+            }
+
+            void done(int count) {
+                if (remaining.addAndGet(-count) == 0) {
+                    Throwable exc = failure.get();
+                    if (exc == null) {
+                        handler.completed(results, attachment);
+                    } else {
+                        handler.failed(exc, attachment);
+                    }
+                }
+            }
+        }
+        BatchHandler batch = new BatchHandler();
+        for (int i = 0; i < n; i++) {
+            try {
+                read(dsts[i], positions[i], i, batch);
+            } catch (RuntimeException | Error x) {
+                if (i == 0)
+                    throw x;
+                // the reads already initiated complete the handler
+                batch.fail(x, n - i);
+                return;
+            }
+        }
+    }
+
     /**
      * Writes a sequence of bytes to this channel from the given buffer, starting
      * at the given file position.
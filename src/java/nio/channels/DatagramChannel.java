@@ -463,6 +463,165 @@ public abstract class DatagramChannel
     public abstract int send(ByteBuffer src, SocketAddress target)
         throws IOException;
 
+    /**
+     * Receives a batch of datagrams via this channel.
+     *
+     * <p> This method receives datagrams, as if by invoking {@link
+     * #receive(ByteBuffer) receive} once for each of the given buffers in
+     * turn, and stores the source address of the datagram received into each
+     * buffer at the same index of the given array of addresses.  It stops at
+     * the first buffer for which no datagram is immediately available.  In
+     * blocking mode it therefore waits for the first datagram only, and the
+     * default implementation of this method, which cannot find out whether
+     * further datagrams are available without blocking, then returns.
+     * Implementations whose platform can receive several datagrams in a
+     * single system call are encouraged to override this method to do
+     * so. </p>
+     *
+     * <p> If an exception would be thrown after one or more datagrams have
+     * been received then this method instead returns the number of datagrams
+     * received, and the exception is not thrown.  If the condition that
+     * caused it persists then it will cause the next operation upon this
+     * channel to fail. </p>
+     *
+     * @param  dsts
+     *         The buffers into which datagrams are to be transferred
+     *
+     * @param  sources
+     *         The array into which the source addresses of the datagrams
+     *         received are to be stored; must have the same length as
+     *         {@code dsts}
+     *
+     * @return  The number of datagrams received, which may be zero if this
+     *          channel is in non-blocking mode and no datagram was
+     *          immediately available
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are of different lengths
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be accepted
+     *          from the datagram's sender
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public int receive(ByteBuffer[] dsts, SocketAddress[] sources)
+        throws IOException
+    {
+        if (sources.length != dsts.length)
+            throw new IllegalArgumentException("Length mismatch");
+        int n = 0;
+        while (n < dsts.length) {
+            SocketAddress sa;
+            try {
+                sa = receive(dsts[n]);
+            } catch (IOException | SecurityException x) {
+                if (n > 0)
+                    break;
+                throw x;
+            }
+            if (sa == null)
+                break;
+            sources[n++] = sa;
+            if (isBlocking())
+                break;
+        }
+        return n;
+    }
+
+    /**
+     * Sends a batch of datagrams via this channel.
+     *
+     * <p> This method sends the remaining bytes of each of the given buffers
+     * as a single datagram to the target address at the same index of the
+     * given array of addresses, in order, as if by invoking {@link
+     * #send(ByteBuffer,SocketAddress) send} once for each buffer.  In
+     * non-blocking mode it stops at the first datagram for which there is
+     * insufficient room in the underlying output buffer.  Implementations
+     * whose platform can send several datagrams in a single system call are
+     * encouraged to override this method to do so. </p>
+     *
+     * <p> If an exception would be thrown after one or more datagrams have
+     * been sent then this method instead returns the number of datagrams
+     * sent, and the exception is not thrown.  If the condition that caused
+     * it persists then it will cause the next operation upon this channel to
+     * fail. </p>
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent; must have
+     *         the same length as {@code srcs}
+     *
+     * @return  The number of datagrams sent, which is less than the number
+     *          of buffers only if this channel is in non-blocking mode, or
+     *          if an exception occurred after some datagrams were sent
+     *
+     * @throws  IllegalArgumentException
+     *          If the arrays are of different lengths
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be sent
+     *          to one of the given addresses
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @since 1.8
+     */
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets.length != srcs.length)
+            throw new IllegalArgumentException("Length mismatch");
+        int n = 0;
+        while (n < srcs.length) {
+            int rem = srcs[n].remaining();
+            try {
+                if (send(srcs[n], targets[n]) == 0 && rem > 0)
+                    break;
+            } catch (IOException | SecurityException x) {
+                if (n > 0)
+                    break;
+                throw x;
+            }
+            n++;
+        }
+        return n;
+    }
+
 
     // -- ByteChannel operations --
 
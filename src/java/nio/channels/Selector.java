@@ -28,7 +28,9 @@ package java.nio.channels;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -349,6 +351,132 @@ public abstract class Selector implements Closeable {
      */
     public abstract int select() throws IOException;
 
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a blocking <a href="#selop">selection
+     * operation</a>, as specified by {@link #select(long) select(long)}, and
+     * then invokes the given action once for each key whose channel is ready
+     * for at least one of the operations identified by its interest set,
+     * instead of leaving the selected keys in the selected-key set.  Keys
+     * that were already in the selected-key set when this method was invoked
+     * are passed to the action as well.  The selected-key set is empty when
+     * this method returns, and the application therefore need not iterate
+     * over it and remove each key.  The action is invoked by the thread
+     * performing the selection operation while it holds the selector's lock,
+     * so it should not block. </p>
+     *
+     * <p> The default implementation performs a selection operation, then
+     * copies the selected-key set into an array and clears it while holding
+     * the selected-key set's lock, and then passes each key of the copy to
+     * the action.  It therefore does the same set maintenance as a selection
+     * operation followed by an iteration over the selected-key set, and
+     * allocates the copy in addition.  Selector implementations may override
+     * it to dispatch ready keys to the action directly, without adding them
+     * to the selected-key set. </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  must not be negative
+     *
+     * @return  The number of keys on which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @throws  IllegalArgumentException
+     *          If the value of the timeout argument is negative
+     *
+     * @since 1.8
+     */
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return doSelect(Objects.requireNonNull(action), timeout);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations, as by {@link #select(Consumer,long)
+     * select(action, 0)}.
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys on which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 1.8
+     */
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations, as by {@link #select(Consumer,long)
+     * select(Consumer, long)}, but with a non-blocking
+     * selection operation as specified by {@link #selectNow()}.
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of keys on which the action was performed
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @since 1.8
+     */
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        return doSelect(Objects.requireNonNull(action), -1);
+    }
+
+    /**
+     * Default implementation of select(Consumer) and selectNow(Consumer);
+     * a negative timeout selects without blocking.
+     */
+    private int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        synchronized (this) {
+            // The selection operation locks the key set and then the
+            // selected-key set itself, so the latter is not held around it
+            if (timeout < 0)
+                selectNow();
+            else
+                select(timeout);
+            // copy the selected-key set, as the action may select again
+            Set<SelectionKey> selectedKeys = selectedKeys();
+            SelectionKey[] keys;
+            synchronized (selectedKeys) {
+                keys = selectedKeys.toArray(new SelectionKey[selectedKeys.size()]);
+                selectedKeys.clear();
+            }
+            for (SelectionKey k : keys) {
+                action.accept(k);
+                if (!isOpen())
+                    throw new ClosedSelectorException();
+            }
+            return keys.length;
+        }
+    }
+
     /**
      * Causes the first selection operation that has not yet returned to return
      * immediately.
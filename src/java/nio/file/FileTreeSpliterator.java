@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.nio.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.nio.file.FileTreeWalker.Event;
+
+/**
+ * A {@code Spliterator} over the nodes of a file tree, for the streams
+ * returned by {@link Files#walk} and {@link Files#find}.
+ *
+ * <p> Traversed sequentially, the file tree is walked depth-first in the
+ * same order as {@link Files#walkFileTree}. When split, for example by a
+ * parallel stream, the remaining entries of the shallowest directory that is
+ * still being iterated are handed to the new spliterator, which walks their
+ * subtrees with a walker of its own; a spliterator holding more than one
+ * such entry splits them in halves, and one holding a single directory
+ * opens it and hands off its entries. Parallel traversal therefore divides
+ * the tree by directory, and each directory is opened and its files'
+ * attributes read by the thread that walks it.
+ *
+ * <pre>{@code
+ *     try (FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options)) {
+ *         spliterator.forEachRemaining(ev -> {
+ *             Path path = ev.file();
+ *             BasicFileAttributes attrs = ev.attributes();
+ *         });
+ *     }
+ * }</pre>
+ */
+
+class FileTreeSpliterator implements Spliterator<Event>, Closeable {
+    /**
+     * The walkers of a spliterator and of all spliterators split from it
+     * that have not finished yet, closed together. A walker is not
+     * thread-safe, so it is only used while holding its monitor.
+     */
+    private static class Walkers implements Closeable {
+        private final ConcurrentLinkedQueue<FileTreeWalker> walkers =
+            new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        FileTreeWalker register(FileTreeWalker walker) {
+            walkers.add(walker);
+            if (closed)
+                close();
+            return walker;
+        }
+
+        void deregister(FileTreeWalker walker) {
+            walkers.remove(walker);
+        }
+
+        boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            FileTreeWalker walker;
+            while ((walker = walkers.poll()) != null) {
+                // wait for the walker's spliterator to finish its current
+                // operation, which may be in progress in another thread
+                synchronized (walker) {
+                    walker.close();
+                }
+            }
+        }
+    }
+
+    private final Walkers walkers;
+    private final FileTreeWalker walker;
+    private final List<Path> entries;   // entries for the walker to start from
+    private int index;                  // next entry to walk
+    private int fence;                  // one past the last entry to walk
+    private IOException ioe;            // error after the last entry
+    private Event next;
+
+    /**
+     * Creates a new spliterator to walk the file tree starting at the given
+     * file.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, FileVisitOption... options)
+        throws IOException
+    {
+        this.walkers = new Walkers();
+        this.walker = walkers.register(new FileTreeWalker(Arrays.asList(options), maxDepth));
+        this.entries = Collections.emptyList();
+        try {
+            this.next = walker.walk(start);
+        } catch (Error|RuntimeException e) {
+            walkers.close();
+            throw e;
+        }
+        assert next.type() == FileTreeWalker.EventType.ENTRY ||
+               next.type() == FileTreeWalker.EventType.START_DIRECTORY;
+
+        // IOException if there a problem accessing the starting file
+        IOException ioe = next.ioeException();
+        if (ioe != null) {
+            walkers.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Creates a spliterator that walks entries {@code [index, fence)} of the
+     * given list with the given walker.
+     */
+    private FileTreeSpliterator(Walkers walkers, FileTreeWalker walker,
+                                List<Path> entries, int index, int fence,
+                                IOException ioe)
+    {
+        this.walkers = walkers;
+        this.walker = walkers.register(walker);
+        this.entries = entries;
+        this.index = index;
+        this.fence = fence;
+        this.ioe = ioe;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        Objects.requireNonNull(action);
+        Event ev;
+        synchronized (walker) {
+            if (!walkers.isOpen())
+                throw new IllegalStateException();
+            ev = advance();
+        }
+        if (ev == null)
+            return false;
+        action.accept(ev);
+        return true;
+    }
+
+    /**
+     * Returns the next event other than END_DIRECTORY, or {@code null} if
+     * the walk is done, in which case the walker is closed and deregistered.
+     */
+    private Event advance() {
+        for (;;) {
+            Event ev = next;
+            if (ev != null) {
+                next = null;
+            } else if ((ev = walker.next()) == null) {
+                // subtree of the current entry done, start on the next one
+                if (index < fence) {
+                    ev = walker.walkEntry(entries.get(index++));
+                    if (ev == null)
+                        continue;
+                } else {
+                    walker.close();
+                    walkers.deregister(walker);
+                    IOException x = ioe;
+                    if (x != null) {
+                        ioe = null;
+                        throw new UncheckedIOException(x);
+                    }
+                    return null;
+                }
+            }
+
+            IOException x = ev.ioeException();
+            if (x != null)
+                throw new UncheckedIOException(x);
+
+            // END_DIRECTORY events are ignored
+            if (ev.type() != FileTreeWalker.EventType.END_DIRECTORY)
+                return ev;
+        }
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        synchronized (walker) {
+            if (!walkers.isOpen())
+                return null;
+
+            // hand off half of the entries not yet started on
+            int lo = index, mid = (lo + fence) >>> 1;
+            if (lo < mid) {
+                index = mid;
+                return new FileTreeSpliterator(walkers, walker.fork(),
+                                               entries, lo, mid, null);
+            }
+
+            // if the walker has not started on the last entry, visit it now,
+            // so that its entries can be handed off if it is a directory
+            while (next == null && index < fence && walker.isIdle()) {
+                next = walker.walkEntry(entries.get(index++));
+            }
+
+            // hand off the rest of a directory being iterated
+            FileTreeWalker.Split split = walker.split();
+            if (split == null)
+                return null;
+            List<Path> rest = split.entries();
+            return new FileTreeSpliterator(walkers, split.walker(),
+                                           rest, 0, rest.size(),
+                                           split.exception());
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    /**
+     * Closes the walkers of this spliterator and of all spliterators split
+     * from it, or from the spliterator it was split from.
+     */
+    @Override
+    public void close() {
+        walkers.close();
+    }
+}
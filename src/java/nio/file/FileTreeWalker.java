@@ -29,8 +29,10 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import sun.nio.fs.BasicFileAttributesHolder;
 
 /**
@@ -59,6 +61,7 @@ class FileTreeWalker implements Closeable {
     private final LinkOption[] linkOptions;
     private final int maxDepth;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
+    private final DirectoryNode[] ancestors;
     private boolean closed;
 
     /**
@@ -162,6 +165,35 @@ class FileTreeWalker implements Closeable {
         }
     }
 
+    /**
+     * Directory entries taken from a walker by {@link #split}, together with
+     * the walker to walk them and any I/O error that ended the iteration of
+     * the directory.
+     */
+    static class Split {
+        private final FileTreeWalker walker;
+        private final List<Path> entries;
+        private final IOException ioe;
+
+        private Split(FileTreeWalker walker, List<Path> entries, IOException ioe) {
+            this.walker = walker;
+            this.entries = entries;
+            this.ioe = ioe;
+        }
+
+        FileTreeWalker walker() {
+            return walker;
+        }
+
+        List<Path> entries() {
+            return entries;
+        }
+
+        IOException exception() {
+            return ioe;
+        }
+    }
+
     /**
      * Creates a {@code FileTreeWalker}.
      *
@@ -191,6 +223,20 @@ class FileTreeWalker implements Closeable {
         this.linkOptions = (fl) ? new LinkOption[0] :
             new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
+        this.ancestors = new DirectoryNode[0];
+    }
+
+    /**
+     * Creates a {@code FileTreeWalker} for entries of a directory of
+     * another walk, with the remaining depth and the directories above them.
+     */
+    private FileTreeWalker(FileTreeWalker parent, int maxDepth,
+                           DirectoryNode[] ancestors)
+    {
+        this.followLinks = parent.followLinks;
+        this.linkOptions = parent.linkOptions;
+        this.maxDepth = maxDepth;
+        this.ancestors = ancestors;
     }
 
     /**
@@ -234,24 +280,40 @@ class FileTreeWalker implements Closeable {
      * file system loop/cycle.
      */
     private boolean wouldLoop(Path dir, Object key) {
+        for (DirectoryNode ancestor: stack) {
+            if (isSameDirectory(dir, key, ancestor))
+                return true;
+        }
+        // directories above the start of a walker created by split
+        for (DirectoryNode ancestor: ancestors) {
+            if (isSameDirectory(dir, key, ancestor))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the given directory is the same as the given ancestor.
+     */
+    private static boolean isSameDirectory(Path dir, Object key,
+                                           DirectoryNode ancestor)
+    {
         // if this directory and ancestor has a file key then we compare
         // them; otherwise we use less efficient isSameFile test.
-        for (DirectoryNode ancestor: stack) {
-            Object ancestorKey = ancestor.key();
-            if (key != null && ancestorKey != null) {
-                if (key.equals(ancestorKey)) {
+        Object ancestorKey = ancestor.key();
+        if (key != null && ancestorKey != null) {
+            if (key.equals(ancestorKey)) {
+                // cycle detected
+                return true;
+            }
+        } else {
+            try {
+                if (Files.isSameFile(dir, ancestor.directory())) {
                     // cycle detected
                     return true;
                 }
-            } else {
-                try {
-                    if (Files.isSameFile(dir, ancestor.directory())) {
-                        // cycle detected
-                        return true;
-                    }
-                } catch (IOException | SecurityException x) {
-                    // ignore
-                }
+            } catch (IOException | SecurityException x) {
+                // ignore
             }
         }
         return false;
@@ -326,6 +388,75 @@ class FileTreeWalker implements Closeable {
         return ev;
     }
 
+    /**
+     * Starts walking from an entry taken from a directory by {@link #split}.
+     * Unlike {@link #walk}, cached attributes may be used and a
+     * SecurityException is ignored, in which case {@code null} is returned.
+     * The walker must have finished walking any previous entry.
+     */
+    Event walkEntry(Path entry) {
+        if (closed)
+            throw new IllegalStateException("Closed");
+        assert stack.isEmpty();
+        return visit(entry,
+                     true,   // ignoreSecurityException
+                     true);  // canUseCached
+    }
+
+    /**
+     * Returns a new walker with the same options, remaining depth and
+     * ancestors as this walker, to walk other entries of the directory
+     * that this walker's entries were taken from.
+     */
+    FileTreeWalker fork() {
+        return new FileTreeWalker(this, maxDepth, ancestors);
+    }
+
+    /**
+     * Takes the remaining entries of the shallowest directory on the stack
+     * that has not been fully iterated, so that their subtrees can be walked
+     * by another walker, typically in another thread. This walker then
+     * completes the directory without visiting them. Returns {@code null}
+     * if there is no such directory or the walker is closed.
+     */
+    Split split() {
+        if (closed)
+            return null;
+        int depth = 0;
+        Iterator<DirectoryNode> nodes = stack.descendingIterator();
+        while (nodes.hasNext()) {
+            DirectoryNode node = nodes.next();
+            depth++;
+            if (node.skipped())
+                continue;
+            List<Path> entries = new ArrayList<>();
+            IOException ioe = null;
+            try {
+                Iterator<Path> iterator = node.iterator();
+                while (iterator.hasNext()) {
+                    entries.add(iterator.next());
+                }
+            } catch (DirectoryIteratorException x) {
+                ioe = x.getCause();
+            }
+            node.skip();
+            if (entries.isEmpty() && ioe == null)
+                continue;
+
+            // the new walker checks for cycles against this directory and
+            // the directories above it
+            DirectoryNode[] above = new DirectoryNode[ancestors.length + depth];
+            System.arraycopy(ancestors, 0, above, 0, ancestors.length);
+            Iterator<DirectoryNode> it = stack.descendingIterator();
+            for (int i = ancestors.length; i < above.length; i++) {
+                above[i] = it.next();
+            }
+            return new Split(new FileTreeWalker(this, maxDepth - depth, above),
+                             entries, ioe);
+        }
+        return null;
+    }
+
     /**
      * Returns the next Event or {@code null} if there are no more events or
      * the walker is closed.
@@ -403,6 +534,14 @@ class FileTreeWalker implements Closeable {
         }
     }
 
+    /**
+     * Returns {@code true} if the walker has no directory on the stack, that
+     * is, it has finished walking from the last file it started at.
+     */
+    boolean isIdle() {
+        return stack.isEmpty();
+    }
+
     /**
      * Returns {@code true} if the walker is open.
      */
@@ -29,6 +29,8 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -2912,6 +2914,31 @@ public final class Files {
         return nread;
     }
 
+    /**
+     * Transfers the bytes of a file channel from its position to its end to
+     * a target channel, using {@code transferTo} so that the platform may
+     * copy them without passing them through the Java heap, and advances
+     * the position of the file channel accordingly.  Channels of files
+     * without a size, such as pipes, are left untouched.
+     */
+    private static long transfer(FileChannel source, FileChannel target)
+        throws IOException
+    {
+        long size = source.size();
+        if (size == 0L)
+            return 0L;
+        long start = source.position();
+        long pos = start;
+        while (pos < size) {
+            long n = source.transferTo(pos, size - pos, target);
+            if (n <= 0L)
+                break;
+            pos += n;
+        }
+        source.position(pos);
+        return pos - start;
+    }
+
     /**
      * Copies all bytes from an input stream to a file. On return, the input
      * stream will be at end of stream.
@@ -3011,10 +3038,23 @@ public final class Files {
         // FileAlreadyExistsException then it may be because the security
         // manager prevented us from deleting the file, in which case we just
         // throw the SecurityException.
+        //
+        // A plain FileInputStream is copied with its channel when the
+        // target is opened as a FileChannel.
         OutputStream ostream;
+        FileChannel fc = null;
         try {
-            ostream = newOutputStream(target, StandardOpenOption.CREATE_NEW,
-                                              StandardOpenOption.WRITE);
+            if (in.getClass() == FileInputStream.class) {
+                SeekableByteChannel sbc =
+                    newByteChannel(target, StandardOpenOption.CREATE_NEW,
+                                           StandardOpenOption.WRITE);
+                if (sbc instanceof FileChannel)
+                    fc = (FileChannel)sbc;
+                ostream = Channels.newOutputStream(sbc);
+            } else {
+                ostream = newOutputStream(target, StandardOpenOption.CREATE_NEW,
+                                                  StandardOpenOption.WRITE);
+            }
         } catch (FileAlreadyExistsException x) {
             if (se != null)
                 throw se;
@@ -3024,7 +3064,10 @@ public final class Files {
 
         // do the copy
         try (OutputStream out = ostream) {
-            return copy(in, out);
+            long n = 0L;
+            if (fc != null)
+                n = transfer(((FileInputStream)in).getChannel(), fc);
+            return n + copy(in, out);
         }
     }
 
@@ -3065,6 +3108,17 @@ public final class Files {
         // ensure not null before opening file
         Objects.requireNonNull(out);
 
+        // a plain FileOutputStream is copied to with its channel
+        if (out.getClass() == FileOutputStream.class) {
+            try (SeekableByteChannel sbc = newByteChannel(source)) {
+                long n = 0L;
+                if (sbc instanceof FileChannel)
+                    n = transfer((FileChannel)sbc,
+                                 ((FileOutputStream)out).getChannel());
+                return n + copy(Channels.newInputStream(sbc), out);
+            }
+        }
+
         try (InputStream in = newInputStream(source)) {
             return copy(in, out);
         }
@@ -3507,6 +3561,11 @@ public final class Files {
      * file tree while iterating, so it may (or may not) reflect updates to
      * the file tree that occur after returned from this method.
      *
+     * <p> If the stream is {@link Stream#parallel parallel}, the file tree
+     * is divided between threads by directory: the remaining entries of a
+     * directory can be handed to another thread, which walks their subtrees
+     * depth-first. The encounter order of the elements is then unspecified.
+     *
      * <p> By default, symbolic links are not automatically followed by this
      * method. If the {@code options} parameter contains the {@link
      * FileVisitOption#FOLLOW_LINKS FOLLOW_LINKS} option then symbolic links are
@@ -3571,13 +3630,13 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
@@ -3684,14 +3743,14 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeSpliterator spliterator = new FileTreeSpliterator(start, maxDepth, options);
         try {
-            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
-                                .onClose(iterator::close)
+            return StreamSupport.stream(spliterator, false)
+                                .onClose(spliterator::close)
                                 .filter(entry -> matcher.test(entry.file(), entry.attributes()))
                                 .map(entry -> entry.file());
         } catch (Error|RuntimeException e) {
-            iterator.close();
+            spliterator.close();
             throw e;
         }
     }
@@ -1508,6 +1508,30 @@ public class HashMap<K,V> extends AbstractMap<K,V>
             getFence(); // force init
             return (long) est;
         }
+
+        /**
+         * Returns the bin index at which to split the remaining range,
+         * or -1 if it cannot be split.  Empty bins at either end of the
+         * range are skipped first, so that the midpoint is taken over
+         * occupied bins and a clustered or sparse table does not hand
+         * out halves holding no elements at all.
+         */
+        final int splitIndex() {
+            int hi = getFence(), lo = index;
+            Node<K,V>[] tab;
+            if (current != null)
+                return -1;
+            if ((tab = map.table) != null && hi <= tab.length) {
+                while (lo < hi && tab[lo] == null)
+                    ++lo;
+                while (hi > lo && tab[hi - 1] == null)
+                    --hi;
+                index = lo;
+                fence = hi;
+            }
+            int mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? -1 : mid;
+        }
     }
 
     static final class KeySpliterator<K,V>
@@ -1519,8 +1543,8 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         }
 
         public KeySpliterator<K,V> trySplit() {
-            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
-            return (lo >= mid || current != null) ? null :
+            int mid = splitIndex(), lo = index;
+            return (mid < 0) ? null :
                 new KeySpliterator<>(map, lo, index = mid, est >>>= 1,
                                         expectedModCount);
         }
@@ -1591,8 +1615,8 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         }
 
         public ValueSpliterator<K,V> trySplit() {
-            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
-            return (lo >= mid || current != null) ? null :
+            int mid = splitIndex(), lo = index;
+            return (mid < 0) ? null :
                 new ValueSpliterator<>(map, lo, index = mid, est >>>= 1,
                                           expectedModCount);
         }
@@ -1662,8 +1686,8 @@ public class HashMap<K,V> extends AbstractMap<K,V>
         }
 
         public EntrySpliterator<K,V> trySplit() {
-            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
-            return (lo >= mid || current != null) ? null :
+            int mid = splitIndex(), lo = index;
+            return (mid < 0) ? null :
                 new EntrySpliterator<>(map, lo, index = mid, est >>>= 1,
                                           expectedModCount);
         }
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2012, 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Collector;
+
+/**
+ * A state object for collecting statistics such as count, min, max, sum and
+ * average, together with a mergeable sketch from which quantiles (such as
+ * the median or the 99th percentile) can be estimated.
+ *
+ * <p>The sketch divides the positive and negative number lines into buckets
+ * whose bounds grow geometrically, so that every estimated quantile is within
+ * a fixed {@linkplain #getRelativeAccuracy() relative accuracy} of a value
+ * that was actually recorded at that rank.  Recording a value only increments
+ * a bucket counter, and the number of buckets grows with the logarithm of the
+ * range of recorded values rather than with their count, so arbitrarily long
+ * streams can be summarized in a small amount of memory.  Two sketches with
+ * the same relative accuracy can be combined exactly.
+ *
+ * <p>Each side of zero is limited to 2048 buckets, so a sketch never holds
+ * more than 4096 counters.  With the default relative accuracy of 1% this
+ * covers magnitudes spanning more than seventeen orders of magnitude.  When
+ * the recorded magnitudes span more buckets than that, the buckets nearest
+ * zero are merged into one, and only quantiles that fall into the merged
+ * bucket lose the relative accuracy guarantee; they are still never reported
+ * outside of the range of finite values recorded.
+ *
+ * <p>This class is designed to work with (though does not require)
+ * {@linkplain java.util.stream streams}. For example, you can compute
+ * the median latency of a stream of ints with:
+ * <pre> {@code
+ * QuantileSummaryStatistics stats = intStream.collect(QuantileSummaryStatistics::new,
+ *                                                     QuantileSummaryStatistics::accept,
+ *                                                     QuantileSummaryStatistics::combine);
+ * double median = stats.getQuantile(0.5);
+ * }</pre>
+ *
+ * <p>{@code QuantileSummaryStatistics} can be used as a
+ * {@linkplain java.util.stream.Stream#collect(Collector) reduction}
+ * target for a {@linkplain java.util.stream.Stream stream}. For example:
+ *
+ * <pre> {@code
+ * QuantileSummaryStatistics stats = requests.stream()
+ *     .collect(Collectors.summarizingQuantiles(Request::getLatency));
+ *}</pre>
+ *
+ * @implNote This implementation is not thread safe. However, it is safe to use
+ * {@link java.util.stream.Collectors#summarizingQuantiles(java.util.function.ToDoubleFunction)
+ * Collectors.summarizingQuantiles()} on a parallel stream, because the parallel
+ * implementation of {@link java.util.stream.Stream#collect Stream.collect()}
+ * provides the necessary partitioning, isolation, and merging of results for
+ * safe and efficient parallel execution.
+ * @see DoubleSummaryStatistics
+ * @since 1.8
+ */
+public class QuantileSummaryStatistics extends DoubleSummaryStatistics
+        implements IntConsumer, LongConsumer {
+    /**
+     * The relative accuracy used by the no-argument constructor.
+     */
+    static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /**
+     * The smallest supported relative accuracy; below it the bucket indices
+     * of extreme doubles would no longer fit in an {@code int}.
+     */
+    static final double MIN_RELATIVE_ACCURACY = 1.0e-6;
+
+    private final double relativeAccuracy;
+    private final double gamma;         // ratio between adjacent bucket bounds
+    private final double invLogGamma;   // 1 / log(gamma)
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets(); // indexed by magnitude
+    private long zeroCount;
+    private double finiteMin = Double.POSITIVE_INFINITY;
+    private double finiteMax = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Construct an empty instance with a relative accuracy of 1%.
+     */
+    public QuantileSummaryStatistics() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Construct an empty instance whose quantile estimates are within the
+     * given relative accuracy.
+     *
+     * @param relativeAccuracy the relative accuracy, at least {@code 1.0E-6}
+     *        and less than 1
+     * @throws IllegalArgumentException if {@code relativeAccuracy} is less
+     *         than {@code 1.0E-6}, not less than 1, or NaN
+     */
+    public QuantileSummaryStatistics(double relativeAccuracy) {
+        if (!(relativeAccuracy >= MIN_RELATIVE_ACCURACY && relativeAccuracy < 1.0d))
+            throw new IllegalArgumentException("Illegal relative accuracy: " +
+                                               relativeAccuracy);
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1.0d + relativeAccuracy) / (1.0d - relativeAccuracy);
+        this.invLogGamma = 1.0d / Math.log(gamma);
+    }
+
+    /**
+     * Records a new {@code int} value into the summary information.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(int value) {
+        accept((double) value);
+    }
+
+    /**
+     * Records a new {@code long} value into the summary information.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(long value) {
+        accept((double) value);
+    }
+
+    /**
+     * Records another value into the summary information.  NaN and
+     * infinite values are counted by the summary statistics but are not
+     * recorded in the quantile sketch.
+     *
+     * @param value the input value
+     */
+    @Override
+    public void accept(double value) {
+        super.accept(value);
+        if (value > Double.NEGATIVE_INFINITY && value < Double.POSITIVE_INFINITY) {
+            finiteMin = Math.min(finiteMin, value);
+            finiteMax = Math.max(finiteMax, value);
+        }
+        if (value > 0.0d) {
+            if (value != Double.POSITIVE_INFINITY)
+                positive.add(index(value), 1L);
+        } else if (value < 0.0d) {
+            if (value != Double.NEGATIVE_INFINITY)
+                negative.add(index(-value), 1L);
+        } else if (value == 0.0d) {
+            ++zeroCount;
+        }
+    }
+
+    /**
+     * Combines the state of another {@code QuantileSummaryStatistics} into
+     * this one.
+     *
+     * @param other another {@code QuantileSummaryStatistics}
+     * @throws NullPointerException if {@code other} is null
+     * @throws IllegalArgumentException if {@code other} has a different
+     *         relative accuracy
+     */
+    public void combine(QuantileSummaryStatistics other) {
+        if (other.relativeAccuracy != relativeAccuracy)
+            throw new IllegalArgumentException("Relative accuracy mismatch: " +
+                                               relativeAccuracy + " vs " +
+                                               other.relativeAccuracy);
+        super.combine(other);
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeroCount += other.zeroCount;
+        finiteMin = Math.min(finiteMin, other.finiteMin);
+        finiteMax = Math.max(finiteMax, other.finiteMax);
+    }
+
+    /**
+     * Returns the relative accuracy of the quantile estimates.
+     *
+     * @return the relative accuracy
+     */
+    public final double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Returns an estimate of the value at the given quantile of the finite
+     * values recorded, or {@code Double.NaN} if no finite values have been
+     * recorded.  The estimate {@code e} of the value {@code v} at that rank
+     * satisfies {@code |e - v| <= getRelativeAccuracy() * |v|}.
+     *
+     * @param quantile the quantile, between 0 and 1 inclusive; for example
+     *        0.5 for the median or 0.99 for the 99th percentile
+     * @return the estimated value at the quantile, or {@code Double.NaN} if
+     *         no finite values have been recorded
+     * @throws IllegalArgumentException if {@code quantile} is not between
+     *         0 and 1 inclusive
+     */
+    public final double getQuantile(double quantile) {
+        if (!(quantile >= 0.0d && quantile <= 1.0d))
+            throw new IllegalArgumentException("Illegal quantile: " + quantile);
+        long n = negative.total + zeroCount + positive.total;
+        if (n == 0L)
+            return Double.NaN;
+        long rank = (long) (quantile * (n - 1));
+        double e;
+        if (rank < negative.total)
+            e = -value(negative.indexAtRank(negative.total - 1 - rank));
+        else if ((rank -= negative.total) < zeroCount)
+            e = 0.0d;
+        else
+            e = value(positive.indexAtRank(rank - zeroCount));
+        // Never report an estimate outside of the range of the values in the
+        // sketch; getMin() and getMax() also account for NaN and infinities
+        return Math.max(finiteMin, Math.min(finiteMax, e));
+    }
+
+    /**
+     * Returns the bucket index of a positive finite value, such that
+     * {@code gamma^(index - 1) < value <= gamma^index}.
+     */
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) * invLogGamma);
+    }
+
+    /**
+     * Returns the value representing a bucket, chosen so that its relative
+     * distance to either bound of the bucket is the relative accuracy.
+     */
+    private double value(int index) {
+        return 2.0d * Math.pow(gamma, index) / (gamma + 1.0d);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns a non-empty string representation of this object suitable for
+     * debugging. The exact presentation format is unspecified and may vary
+     * between implementations and versions.
+     */
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{count=%d, sum=%f, min=%f, average=%f, median=%f, p99=%f, max=%f}",
+            this.getClass().getSimpleName(),
+            getCount(),
+            getSum(),
+            getMin(),
+            getAverage(),
+            getQuantile(0.5d),
+            getQuantile(0.99d),
+            getMax());
+    }
+
+    /**
+     * Dense counters for a contiguous range of bucket indices, grown on
+     * demand in either direction up to {@code MAX_BUCKETS}, beyond which the
+     * lowest buckets are merged into the lowest bucket kept.
+     */
+    static final class Buckets {
+        private static final long[] EMPTY = new long[0];
+
+        /**
+         * The maximum number of counters.
+         */
+        static final int MAX_BUCKETS = 2048;
+
+        long[] counts = EMPTY;  // counts[i] is the count of bucket offset + i
+        int offset;
+        long total;
+
+        void add(int index, long n) {
+            long[] c = counts;
+            int i = index - offset;
+            if (c.length == 0) {
+                c = counts = new long[8];
+                offset = index - 4;
+                i = 4;
+            } else if (i < 0 || i >= c.length) {
+                int lo = Math.min(offset, index), hi = Math.max(offset + c.length, index + 1);
+                if (hi - lo > MAX_BUCKETS) {
+                    // Keep the highest buckets, merging all lower ones into
+                    // the lowest bucket kept
+                    lo = hi - MAX_BUCKETS;
+                    index = Math.max(index, lo);
+                }
+                int len = Math.min(MAX_BUCKETS,
+                                   Math.max(hi - lo, c.length + (c.length >> 1)));
+                long[] g = new long[len];
+                // Leave the headroom on the side that had to grow
+                int newOffset = (i < 0) ? hi - len : lo;
+                int skip = Math.min(c.length, Math.max(0, newOffset - offset));
+                if (skip < c.length)
+                    System.arraycopy(c, skip, g, offset + skip - newOffset, c.length - skip);
+                // Add the merged buckets after the copy, which may have
+                // written the first bucket kept to g[0]
+                for (int j = 0; j < skip; j++)
+                    g[0] += c[j];
+                c = counts = g;
+                offset = newOffset;
+                i = index - newOffset;
+            }
+            c[i] += n;
+            total += n;
+        }
+
+        void addAll(Buckets other) {
+            long[] c = other.counts;
+            for (int i = 0; i < c.length; i++) {
+                if (c[i] != 0L)
+                    add(other.offset + i, c[i]);
+            }
+        }
+
+        /**
+         * Returns the index of the bucket holding the element at the given
+         * zero-based rank, counting up from the lowest bucket.
+         */
+        int indexAtRank(long rank) {
+            long[] c = counts;
+            long seen = 0L;
+            for (int i = 0; i < c.length; i++) {
+                if ((seen += c[i]) > rank)
+                    return offset + i;
+            }
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -360,6 +360,9 @@ public final class Scanner implements Iterator<String>, Closeable {
     // The locale used by this scanner
     private Locale locale = null;
 
+    // The pool in which tokens returned by next() are interned, if any
+    private StringInterner interner;
+
     // A cache of the last few recently used Patterns
     private LRUCache<String,Pattern> patternCache =
     new LRUCache<String,Pattern>(7) {
@@ -1259,6 +1262,28 @@ public final class Scanner implements Iterator<String>, Closeable {
         return this;
     }
 
+    /**
+     * Sets the pool through which the tokens returned by {@link #next()}
+     * are canonicalized, or disables canonicalization if the argument is
+     * <code>null</code>, which is the default.
+     *
+     * <p>When a pool is set, equal tokens returned by <code>next()</code>
+     * share a single <code>String</code> instance held by the pool, which
+     * reduces the memory retained by programs that keep many repeated tokens.
+     * Tokens returned by the other <code>next</code> methods are unaffected.
+     *
+     * <p>Invoking the {@link #reset} method does not change this setting.
+     *
+     * @param interner the pool to intern tokens in, or <code>null</code>
+     * @return this scanner
+     * @see java.util.StringInterner
+     * @since 1.8
+     */
+    public Scanner useInterner(StringInterner interner) {
+        this.interner = interner;
+        return this;
+    }
+
     // The next operation should occur in the specified radix but
     // the default is left untouched.
     private void setRadix(int radix) {
@@ -1363,7 +1388,7 @@ public final class Scanner implements Iterator<String>, Closeable {
             if (token != null) {
                 matchValid = true;
                 skipped = false;
-                return token;
+                return (interner != null) ? interner.intern(token) : token;
             }
             if (needInput)
                 readInput();
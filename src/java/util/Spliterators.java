@@ -1681,6 +1681,35 @@ public final class Spliterators {
         }
     }
 
+    /**
+     * Returns the length of the next array batch to be copied out of an
+     * iterator by {@code trySplit}, given the length of the previous batch
+     * and the current size estimate, or {@code Long.MAX_VALUE} if unknown.
+     *
+     * <p>When the size is unknown, batches grow arithmetically by
+     * {@code unit}.  When the size is known, batches grow geometrically but
+     * never take more than half of the remaining elements (or {@code unit},
+     * whichever is larger), so that each split hands off a balanced share
+     * and O(log(#elements)) rather than O(sqrt(#elements)) splits are
+     * needed to reach every core.
+     */
+    static int batchSize(int batch, long est, int unit, int max) {
+        long n;
+        if (est == Long.MAX_VALUE)
+            n = (long) batch + unit;
+        else {
+            n = (batch == 0) ? unit : (long) batch << 1;
+            long half = (est + 1) >>> 1;
+            if (n > half)
+                n = Math.max(half, unit);
+        }
+        if (n > est)
+            n = est;
+        if (n > max)
+            n = max;
+        return (int) n;
+    }
+
     // Iterator-based Spliterators
 
     /**
@@ -1753,17 +1782,17 @@ public final class Spliterators {
         @Override
         public Spliterator<T> trySplit() {
             /*
-             * Split into arrays of arithmetically increasing batch
-             * sizes.  This will only improve parallel performance if
-             * per-element Consumer actions are more costly than
-             * transferring them into an array.  The use of an
-             * arithmetic progression in split sizes provides overhead
-             * vs parallelism bounds that do not particularly favor or
+             * Split into arrays of increasing batch sizes.  This will
+             * only improve parallel performance if per-element Consumer
+             * actions are more costly than transferring them into an
+             * array.  When the size is unknown, an arithmetic
+             * progression in split sizes provides overhead vs
+             * parallelism bounds that do not particularly favor or
              * penalize cases of lightweight vs heavyweight element
-             * operations, across combinations of #elements vs #cores,
-             * whether or not either are known.  We generate
-             * O(sqrt(#elements)) splits, allowing O(sqrt(#cores))
-             * potential speedup.
+             * operations, generating O(sqrt(#elements)) splits.  When
+             * the size is known, batches instead double up to half of
+             * what remains (see batchSize), so that the split tree
+             * stays shallow and balanced.
              */
             Iterator<? extends T> i;
             long s;
@@ -1774,11 +1803,7 @@ public final class Spliterators {
             else
                 s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = batchSize(batch, s, BATCH_UNIT, MAX_BATCH);
                 Object[] a = new Object[n];
                 int j = 0;
                 do { a[j] = i.next(); } while (++j < n && i.hasNext());
@@ -1886,11 +1911,7 @@ public final class Spliterators {
             PrimitiveIterator.OfInt i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = batchSize(batch, s, BATCH_UNIT, MAX_BATCH);
                 int[] a = new int[n];
                 int j = 0;
                 do { a[j] = i.nextInt(); } while (++j < n && i.hasNext());
@@ -1980,11 +2001,7 @@ public final class Spliterators {
             PrimitiveIterator.OfLong i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = batchSize(batch, s, BATCH_UNIT, MAX_BATCH);
                 long[] a = new long[n];
                 int j = 0;
                 do { a[j] = i.nextLong(); } while (++j < n && i.hasNext());
@@ -2074,11 +2091,7 @@ public final class Spliterators {
             PrimitiveIterator.OfDouble i = it;
             long s = est;
             if (s > 1 && i.hasNext()) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = (int) s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
+                int n = batchSize(batch, s, BATCH_UNIT, MAX_BATCH);
                 double[] a = new double[n];
                 int j = 0;
                 do { a[j] = i.nextDouble(); } while (++j < n && i.hasNext());
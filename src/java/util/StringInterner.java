@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of canonical {@code String} instances, held weakly, that can be
+ * used in place of {@link String#intern()} to de-duplicate strings produced
+ * in large numbers, such as tokens produced while parsing.
+ *
+ * <p>Unlike {@code String.intern()}, which adds strings to a fixed-size
+ * table maintained by the virtual machine, a {@code StringInterner} is an
+ * ordinary object: its table grows as needed, strings in it are removed
+ * once they are no longer referenced from elsewhere, it reports its hit
+ * rate and size, and a new pool can be used for each independent unit of
+ * work.  Strings returned by different pools, or by {@code String.intern()},
+ * are not in general identical.
+ *
+ * <p>The pool is split into a number of stripes, each a
+ * {@link ConcurrentHashMap}, selected by the hash code of the string, so that
+ * concurrent threads interning different strings rarely contend.  Entries
+ * refer to their strings through {@link WeakReference}s registered with a
+ * {@link ReferenceQueue}; entries whose strings have been collected are
+ * removed by subsequent calls to {@code intern}.
+ *
+ * <p>Strings can also be interned directly from a range of a {@code char}
+ * array, in which case no {@code String} is allocated if the pool already
+ * holds an equal string.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @see String#intern()
+ * @since 1.8
+ */
+public final class StringInterner {
+    /** The default number of stripes. */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /** The largest number of stripes. */
+    private static final int MAXIMUM_CONCURRENCY_LEVEL = 1 << 16;
+
+    private final ConcurrentHashMap<Object, Entry>[] stripes;
+    private final int mask;
+    private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expunged = new LongAdder();
+
+    /**
+     * Creates an empty pool with the default concurrency level (16).
+     */
+    public StringInterner() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty pool split into enough stripes to support the given
+     * number of concurrently interning threads with little contention.
+     *
+     * @param concurrencyLevel the estimated number of concurrently interning
+     *        threads
+     * @throws IllegalArgumentException if {@code concurrencyLevel} is not
+     *         positive
+     */
+    @SuppressWarnings("unchecked")
+    public StringInterner(int concurrencyLevel) {
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException("Illegal concurrency level: " +
+                                               concurrencyLevel);
+        int n = 1;
+        while (n < concurrencyLevel && n < MAXIMUM_CONCURRENCY_LEVEL)
+            n <<= 1;
+        stripes = (ConcurrentHashMap<Object, Entry>[]) new ConcurrentHashMap<?, ?>[n];
+        for (int i = 0; i < n; i++)
+            stripes[i] = new ConcurrentHashMap<>();
+        mask = n - 1;
+    }
+
+    /**
+     * Returns the canonical instance of the given string in this pool.  If
+     * the pool holds a string equal to {@code s}, that string is returned;
+     * otherwise {@code s} is added to the pool and returned.
+     *
+     * @param s the string to intern
+     * @return a string with the same contents as {@code s}, that is
+     *         identical to the result of any other call to this method or
+     *         {@link #intern(char[], int, int)} with equal contents, for as
+     *         long as it is referenced
+     * @throws NullPointerException if {@code s} is null
+     */
+    public String intern(String s) {
+        int h = s.hashCode();
+        expungeStaleEntries();
+        ConcurrentHashMap<Object, Entry> m = stripeFor(h);
+        Entry e = m.get(new StringKey(s, h));
+        String r;
+        if (e != null && (r = e.get()) != null) {
+            hits.increment();
+            return r;
+        }
+        return add(m, s, h);
+    }
+
+    /**
+     * Returns the canonical instance in this pool of the string formed by
+     * the given range of characters.  If the pool holds an equal string,
+     * that string is returned without allocating a new one; otherwise a new
+     * string is created, added to the pool and returned.
+     *
+     * @param value the characters
+     * @param offset the index of the first character
+     * @param count the number of characters
+     * @return a string made of the given characters, that is identical to
+     *         the result of any other call to this method or
+     *         {@link #intern(String)} with equal contents, for as long as it
+     *         is referenced
+     * @throws NullPointerException if {@code value} is null
+     * @throws IndexOutOfBoundsException if {@code offset} or {@code count}
+     *         is negative, or {@code offset + count} is greater than
+     *         {@code value.length}
+     */
+    public String intern(char[] value, int offset, int count) {
+        if (offset < 0 || count < 0 || offset > value.length - count)
+            throw new IndexOutOfBoundsException("offset " + offset + ", count " +
+                                                count + ", length " + value.length);
+        int h = 0;
+        for (int i = offset, end = offset + count; i < end; i++)
+            h = 31 * h + value[i];  // as String.hashCode
+        expungeStaleEntries();
+        ConcurrentHashMap<Object, Entry> m = stripeFor(h);
+        Entry e = m.get(new CharsKey(value, offset, count, h));
+        String r;
+        if (e != null && (r = e.get()) != null) {
+            hits.increment();
+            return r;
+        }
+        return add(m, new String(value, offset, count), h);
+    }
+
+    private String add(ConcurrentHashMap<Object, Entry> m, String s, int h) {
+        Entry e = new Entry(s, h, queue);
+        for (;;) {
+            Entry prev = m.putIfAbsent(e, e);
+            String r;
+            if (prev == null) {
+                misses.increment();
+                return s;
+            }
+            if ((r = prev.get()) != null) {
+                hits.increment();
+                return r;
+            }
+            // Collected after it was matched; replace it
+            m.remove(prev, prev);
+        }
+    }
+
+    private ConcurrentHashMap<Object, Entry> stripeFor(int h) {
+        // Use bits that ConcurrentHashMap does not use for its own index,
+        // so that each stripe's table is evenly occupied
+        return stripes[((h * 0x9E3779B9) >>> 16) & mask];
+    }
+
+    /**
+     * Removes the entries whose strings have been collected.
+     */
+    private void expungeStaleEntries() {
+        for (Object x; (x = queue.poll()) != null; ) {
+            Entry e = (Entry) x;
+            if (stripeFor(e.hash).remove(e, e))
+                expunged.increment();
+        }
+    }
+
+    /**
+     * Returns the number of strings in this pool.  Strings that have been
+     * collected but whose entries have not yet been removed may be counted.
+     *
+     * @return the number of strings in this pool
+     */
+    public int size() {
+        expungeStaleEntries();
+        long n = 0L;
+        for (ConcurrentHashMap<Object, Entry> m : stripes)
+            n += m.mappingCount();
+        return (n > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) n;
+    }
+
+    /**
+     * Returns the number of calls to {@code intern} that returned a string
+     * already held by this pool.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of calls to {@code intern} that added a string to
+     * this pool.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the fraction of calls to {@code intern} that returned a string
+     * already held by this pool, or {@code 0.0} if there have been none.
+     *
+     * @return the hit rate, between 0 and 1
+     */
+    public double getHitRate() {
+        long h = hits.sum(), n = h + misses.sum();
+        return (n == 0L) ? 0.0d : (double) h / n;
+    }
+
+    /**
+     * Returns the number of entries removed from this pool because their
+     * strings were no longer referenced.
+     *
+     * @return the number of entries removed
+     */
+    public long getExpungedCount() {
+        return expunged.sum();
+    }
+
+    /**
+     * Returns a string describing the size, hit rate and occupancy of the
+     * stripes of this pool.  The exact presentation format is unspecified
+     * and may vary between implementations and versions.
+     *
+     * @return a string describing this pool
+     */
+    @Override
+    public String toString() {
+        int size = size();
+        long min = Long.MAX_VALUE, max = 0L;
+        for (ConcurrentHashMap<Object, Entry> m : stripes) {
+            long n = m.mappingCount();
+            min = Math.min(min, n);
+            max = Math.max(max, n);
+        }
+        return String.format(
+            "%s{size=%d, hits=%d, misses=%d, hitRate=%f, expunged=%d, stripes=%d, stripeSize=[%d..%d]}",
+            this.getClass().getSimpleName(),
+            size,
+            getHitCount(),
+            getMissCount(),
+            getHitRate(),
+            getExpungedCount(),
+            stripes.length,
+            min,
+            max);
+    }
+
+    /**
+     * An entry in the pool, serving as both key and value.  Two entries are
+     * equal if they are identical, or if neither string has been collected
+     * and the strings are equal; this lets a collected entry be removed
+     * while a live entry for an equal string is present.
+     */
+    private static final class Entry extends WeakReference<String> {
+        final int hash;
+
+        Entry(String s, int hash, ReferenceQueue<String> queue) {
+            super(s, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (!(o instanceof Entry))
+                return false;
+            Entry e = (Entry) o;
+            String s;
+            return e.hash == hash && (s = get()) != null && s.equals(e.get());
+        }
+    }
+
+    /**
+     * A lookup key for a {@code String}.  It is only ever passed as the key
+     * argument to a map lookup, which compares it to entries through its own
+     * {@code equals} method.
+     */
+    private static final class StringKey {
+        final String s;
+        final int hash;
+
+        StringKey(String s, int hash) {
+            this.s = s;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Entry) && ((Entry) o).hash == hash
+                   && s.equals(((Entry) o).get());
+        }
+    }
+
+    /**
+     * A lookup key for a range of a {@code char} array.
+     */
+    private static final class CharsKey {
+        final char[] value;
+        final int offset, count, hash;
+
+        CharsKey(char[] value, int offset, int count, int hash) {
+            this.value = value;
+            this.offset = offset;
+            this.count = count;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            String s;
+            if (!(o instanceof Entry) || ((Entry) o).hash != hash ||
+                (s = ((Entry) o).get()) == null || s.length() != count)
+                return false;
+            for (int i = 0; i < count; i++) {
+                if (s.charAt(i) != value[offset + i])
+                    return false;
+            }
+            return true;
+        }
+    }
+}
@@ -148,6 +148,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
      */
     private boolean parallel;
 
+    /**
+     * The profiling counters for the output of this stage, or {@code null}
+     * if {@link StreamProfiler#ENABLED profiling} is disabled.
+     */
+    private final StreamProfiler.Stage profileStage;
+
     /**
      * Constructor for the head of a stream pipeline.
      *
@@ -167,6 +173,9 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         this.combinedFlags = (~(sourceOrOpFlags << 1)) & StreamOpFlag.INITIAL_OPS_VALUE;
         this.depth = 0;
         this.parallel = parallel;
+        this.profileStage = StreamProfiler.ENABLED
+                            ? new StreamProfiler.Profile().addStage(this)
+                            : null;
     }
 
     /**
@@ -188,6 +197,9 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         this.combinedFlags = (~(sourceOrOpFlags << 1)) & StreamOpFlag.INITIAL_OPS_VALUE;
         this.depth = 0;
         this.parallel = parallel;
+        this.profileStage = StreamProfiler.ENABLED
+                            ? new StreamProfiler.Profile().addStage(this)
+                            : null;
     }
 
     /**
@@ -211,6 +223,9 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         if (opIsStateful())
             sourceStage.sourceAnyStateful = true;
         this.depth = previousStage.depth + 1;
+        this.profileStage = StreamProfiler.ENABLED
+                            ? previousStage.profileStage.profile.addStage(this)
+                            : null;
     }
 
 
@@ -229,6 +244,17 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
+        if (StreamProfiler.ENABLED) {
+            StreamProfiler.Profile profile = profileStage.profile;
+            profile.begin(isParallel());
+            try {
+                return isParallel()
+                       ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
+                       : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
+            } finally {
+                profile.end(terminalOp.toString());
+            }
+        }
         return isParallel()
                ? terminalOp.evaluateParallel(this, sourceSpliterator(terminalOp.getOpFlags()))
                : terminalOp.evaluateSequential(this, sourceSpliterator(terminalOp.getOpFlags()));
@@ -246,6 +272,20 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
             throw new IllegalStateException(MSG_STREAM_LINKED);
         linkedOrConsumed = true;
 
+        if (StreamProfiler.ENABLED) {
+            StreamProfiler.Profile profile = profileStage.profile;
+            profile.begin(isParallel());
+            try {
+                return evaluateToArrayNode0(generator);
+            } finally {
+                profile.end("toArray");
+            }
+        }
+        return evaluateToArrayNode0(generator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<E_OUT> evaluateToArrayNode0(IntFunction<E_OUT[]> generator) {
         // If the last intermediate operation is stateful then
         // evaluate directly to avoid an extra collection step
         if (isParallel() && previousStage != null && opIsStateful()) {
@@ -504,6 +544,14 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
         return combinedFlags;
     }
 
+    /**
+     * Returns the profiling counters for the output of this stage, or
+     * {@code null} if profiling is disabled.
+     */
+    final StreamProfiler.Stage profileStage() {
+        return profileStage;
+    }
+
     final boolean isOrdered() {
         return StreamOpFlag.ORDERED.isKnown(combinedFlags);
     }
@@ -513,12 +561,28 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>>
     final <P_IN> Sink<P_IN> wrapSink(Sink<E_OUT> sink) {
         Objects.requireNonNull(sink);
 
+        if (StreamProfiler.ENABLED)
+            return wrapProfiledSink(sink);
         for ( @SuppressWarnings("rawtypes") AbstractPipeline p=AbstractPipeline.this; p.depth > 0; p=p.previousStage) {
             sink = p.opWrapSink(p.previousStage.combinedFlags, sink);
         }
         return (Sink<P_IN>) sink;
     }
 
+    /**
+     * Variant of {@link #wrapSink} that inserts a counting sink at the
+     * output of each stage, including the first stage of the slice.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private <P_IN> Sink<P_IN> wrapProfiledSink(Sink<E_OUT> sink) {
+        AbstractPipeline p = AbstractPipeline.this;
+        for ( ; p.depth > 0; p=p.previousStage) {
+            sink = p.opWrapSink(p.previousStage.combinedFlags,
+                                StreamProfiler.wrap(p.profileStage, sink));
+        }
+        return (Sink<P_IN>) StreamProfiler.wrap(p.profileStage, sink);
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     final <P_IN> Spliterator<E_OUT> wrapSpliterator(Spliterator<P_IN> sourceSpliterator) {
@@ -24,8 +24,12 @@
  */
 package java.util.stream;
 
+import java.util.ArrayDeque;
 import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 /**
  * Abstract class for fork-join tasks used to implement short-circuiting
@@ -190,6 +194,72 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
             return super.getLocalResult();
     }
 
+    /**
+     * The maximum number of elements traversed with
+     * {@code forEachRemaining} between checks for cancellation, when the
+     * spliterator of a leaf can be split into chunks of known size.
+     */
+    private static final long CHUNK_SIZE = 1024;
+
+    /**
+     * Wraps the given sink with the pipeline's operations and copies the
+     * elements of this task's spliterator into it, checking whether the
+     * traversal can stop early.  Traversal stops once a globally valid
+     * result has been found, once this task or a parent has been canceled,
+     * or once {@code limit} elements have reached the sink if {@code limit}
+     * is non-negative.
+     *
+     * <p>Without this, a leaf only observes cancellation by other tasks after
+     * it has traversed its whole spliterator, which for expensive upstream
+     * operations may be long after the answer is known.
+     *
+     * <p>A {@code SUBSIZED} spliterator, such as one over an array, is split
+     * into chunks of at most {@code CHUNK_SIZE} elements, which are traversed
+     * in encounter order with {@code forEachRemaining}, checking before each
+     * chunk; the sink may therefore receive elements after it requested
+     * cancellation, as it does when it is not traversed with cancellation
+     * checks at all.  Other spliterators are traversed with
+     * {@code tryAdvance}, checking before each element.
+     *
+     * @param sink the terminal sink of the leaf
+     * @param limit the maximum number of elements the sink needs, or -1
+     * @return {@code sink}
+     */
+    @SuppressWarnings("unchecked")
+    protected final <S extends Sink<P_OUT>> S copyIntoCancellable(S sink, long limit) {
+        if (spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+            copyInChunks(helper.wrapSink((Sink<P_OUT>) new CancellableSink(this, sink, limit, 1)));
+        } else {
+            helper.copyIntoWithCancel(
+                    helper.wrapSink((Sink<P_OUT>) new CancellableSink(this, sink, limit,
+                                                                      CancellableSink.POLL_INTERVAL)),
+                    spliterator);
+        }
+        return sink;
+    }
+
+    /**
+     * Copies the elements of this task's spliterator into the given wrapped
+     * sink in chunks, checking for cancellation before each chunk.  The
+     * spliterator is split until its prefix holds at most
+     * {@code CHUNK_SIZE} elements, and the suffixes split off are traversed
+     * afterwards, in reverse order of splitting.
+     */
+    private void copyInChunks(Sink<P_IN> wrappedSink) {
+        ArrayDeque<Spliterator<P_IN>> suffixes = new ArrayDeque<>();
+        Spliterator<P_IN> s = spliterator, prefix;
+        wrappedSink.begin(s.getExactSizeIfKnown());
+        while (s != null && !wrappedSink.cancellationRequested()) {
+            while (s.estimateSize() > CHUNK_SIZE && (prefix = s.trySplit()) != null) {
+                suffixes.push(s);
+                s = prefix;
+            }
+            s.forEachRemaining(wrappedSink);
+            s = suffixes.poll();
+        }
+        wrappedSink.end();
+    }
+
     /**
      * Mark this task as canceled
      */
@@ -231,4 +301,88 @@ abstract class AbstractShortCircuitTask<P_IN, P_OUT, R,
             }
         }
     }
+
+    /**
+     * A sink of any shape that forwards to a downstream terminal sink, and
+     * additionally requests cancellation on behalf of its task.  It
+     * implements all primitive consumer types so that the shape-specific
+     * pipelines adapt it without boxing.
+     *
+     * <p>When asked for every element, the shared result and the
+     * cancellation of the task and its parents are polled once every
+     * {@code POLL_INTERVAL} elements rather than for every element, since
+     * checking them reads a volatile field of every task up to the root; once
+     * observed, cancellation is remembered.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class CancellableSink
+            implements Sink<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+        /**
+         * The number of elements between polls of the task state.
+         */
+        static final int POLL_INTERVAL = 64;
+
+        private final AbstractShortCircuitTask<?, ?, ?, ?> task;
+        private final Sink downstream;
+        private final long limit;
+        private final int pollInterval;
+        private long count;
+        private int untilPoll;      // elements until the task state is polled
+        private boolean canceled;   // task state observed canceled
+
+        CancellableSink(AbstractShortCircuitTask<?, ?, ?, ?> task, Sink downstream, long limit,
+                        int pollInterval) {
+            this.task = task;
+            this.downstream = downstream;
+            this.limit = limit;
+            this.pollInterval = pollInterval;
+        }
+
+        @Override
+        public void begin(long size) {
+            downstream.begin(size);
+        }
+
+        @Override
+        public void end() {
+            downstream.end();
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            if (canceled
+                || downstream.cancellationRequested()
+                || (limit >= 0 && count >= limit))
+                return true;
+            if (--untilPoll <= 0) {
+                untilPoll = pollInterval;
+                canceled = task.sharedResult.get() != null || task.taskCanceled();
+            }
+            return canceled;
+        }
+
+        @Override
+        public void accept(Object t) {
+            count++;
+            downstream.accept(t);
+        }
+
+        @Override
+        public void accept(int value) {
+            count++;
+            downstream.accept(value);
+        }
+
+        @Override
+        public void accept(long value) {
+            count++;
+            downstream.accept(value);
+        }
+
+        @Override
+        public void accept(double value) {
+            count++;
+            downstream.accept(value);
+        }
+    }
 }
@@ -294,7 +294,11 @@ abstract class AbstractTask<P_IN, P_OUT, R,
         long sizeThreshold = getTargetSize(sizeEstimate);
         boolean forkRight = false;
         @SuppressWarnings("unchecked") K task = (K) this;
+        StreamProfiler.Profile profile = StreamProfiler.ENABLED
+                                         ? StreamProfiler.profileOf(helper) : null;
         while (sizeEstimate > sizeThreshold && (ls = rs.trySplit()) != null) {
+            if (profile != null)
+                profile.splits.increment();
             K leftChild, rightChild, taskToFork;
             task.leftChild  = leftChild = task.makeChild(ls);
             task.rightChild = rightChild = task.makeChild(rs);
@@ -313,10 +317,30 @@ abstract class AbstractTask<P_IN, P_OUT, R,
             taskToFork.fork();
             sizeEstimate = rs.estimateSize();
         }
-        task.setLocalResult(task.doLeaf());
+        if (profile != null) {
+            profile.leaf(task.depth(), sizeEstimate);
+            StreamProfiler.Profile previous = StreamProfiler.enter(profile);
+            try {
+                task.setLocalResult(task.doLeaf());
+            } finally {
+                StreamProfiler.exit(previous);
+            }
+        } else {
+            task.setLocalResult(task.doLeaf());
+        }
         task.tryComplete();
     }
 
+    /**
+     * Returns the number of ancestors of this task in the computation tree.
+     */
+    final int depth() {
+        int d = 0;
+        for (K p = getParent(); p != null; p = p.getParent())
+            ++d;
+        return d;
+    }
+
     /**
      * {@inheritDoc}
      *
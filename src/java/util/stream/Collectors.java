@@ -42,6 +42,7 @@ import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.QuantileSummaryStatistics;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
@@ -1534,6 +1535,26 @@ public final class Collectors {
                 (l, r) -> { l.combine(r); return l; }, CH_ID);
     }
 
+    /**
+     * Returns a {@code Collector} which applies an {@code double}-producing
+     * mapping function to each input element, and returns summary statistics,
+     * including estimated quantiles, for the resulting values.
+     *
+     * @param <T> the type of the input elements
+     * @param mapper a mapping function to apply to each element
+     * @return a {@code Collector} implementing the summary-statistics reduction
+     *
+     * @see #summarizingDouble(ToDoubleFunction)
+     * @see QuantileSummaryStatistics
+     */
+    public static <T>
+    Collector<T, ?, QuantileSummaryStatistics> summarizingQuantiles(ToDoubleFunction<? super T> mapper) {
+        return new CollectorImpl<T, QuantileSummaryStatistics, QuantileSummaryStatistics>(
+                QuantileSummaryStatistics::new,
+                (r, t) -> r.accept(mapper.applyAsDouble(t)),
+                (l, r) -> { l.combine(r); return l; }, CH_ID);
+    }
+
     /**
      * Implementation class used by partitioningBy.
      */
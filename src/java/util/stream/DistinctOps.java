@@ -24,8 +24,12 @@
  */
 package java.util.stream;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.Spliterator;
@@ -64,6 +68,18 @@ final class DistinctOps {
                 return Nodes.node(reduceOp.evaluateParallel(helper, spliterator));
             }
 
+            <P_IN> Node<T> reduceSorted(PipelineHelper<T> helper, Spliterator<P_IN> spliterator) {
+                // SORTED means sorted in natural order, so duplicates are in the
+                // same run of elements that compare as equal.  Each leaf only
+                // compares an element with the trailing run of its result, and
+                // combining only compares the leading run of the right result
+                // with the trailing run of the left
+                TerminalOp<T, ArrayList<T>> reduceOp
+                        = ReduceOps.<T, ArrayList<T>>makeRef(ArrayList::new, DistinctOps::addIfNotInRun,
+                                                             DistinctOps::addAllIfNotInRun);
+                return Nodes.node(reduceOp.evaluateParallel(helper, spliterator));
+            }
+
             @Override
             <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
                                               Spliterator<P_IN> spliterator,
@@ -72,6 +88,9 @@ final class DistinctOps {
                     // No-op
                     return helper.evaluate(spliterator, false, generator);
                 }
+                else if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
+                    return reduceSorted(helper, spliterator);
+                }
                 else if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
                     return reduce(helper, spliterator);
                 }
@@ -105,6 +124,10 @@ final class DistinctOps {
                     // No-op
                     return helper.wrapSpliterator(spliterator);
                 }
+                else if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
+                    // Not lazy, but only neighbouring elements are compared
+                    return reduceSorted(helper, spliterator).spliterator();
+                }
                 else if (StreamOpFlag.ORDERED.isKnown(helper.getStreamAndOpFlags())) {
                     // Not lazy, barrier required to preserve order
                     return reduce(helper, spliterator).spliterator();
@@ -180,4 +203,167 @@ final class DistinctOps {
             }
         };
     }
+
+    /**
+     * Appends a "distinct" operation that only remembers a bounded window of
+     * recently seen elements to the provided stream, and returns the new
+     * stream.
+     *
+     * <p>An element is dropped if it is equal to one of the {@code window}
+     * distinct elements most recently seen in encounter order, and was last
+     * seen no more than {@code timeout} nanoseconds ago; seeing an element
+     * again makes it the most recent.  Memory use is therefore bounded by
+     * {@code window} regardless of the length of the stream, at the cost of
+     * letting through duplicates that are further apart.  The result is not
+     * known to be distinct, so {@code IS_DISTINCT} is not injected.
+     *
+     * @param <T> the type of both input and output elements
+     * @param upstream a reference stream with element type T
+     * @param window the maximum number of distinct elements remembered
+     * @param timeout the time, in nanoseconds, for which a seen element is
+     *        remembered, or {@code Long.MAX_VALUE} for no limit
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code window} or {@code timeout}
+     *         is not positive
+     */
+    static <T> ReferencePipeline<T, T> makeRef(AbstractPipeline<?, T, ?> upstream,
+                                               int window, long timeout) {
+        checkWindow(window, timeout);
+        return new ReferencePipeline.StatefulOp<T, T>(upstream, StreamShape.REFERENCE,
+                                                      StreamOpFlag.NOT_SIZED) {
+
+            @Override
+            <P_IN> Node<T> opEvaluateParallel(PipelineHelper<T> helper,
+                                              Spliterator<P_IN> spliterator,
+                                              IntFunction<T[]> generator) {
+                if (StreamOpFlag.DISTINCT.isKnown(helper.getStreamAndOpFlags())) {
+                    // No-op
+                    return helper.evaluate(spliterator, false, generator);
+                }
+                // The window is defined in encounter order, so act as a barrier
+                // and apply it sequentially over the evaluated upstream
+                Node<T> n = helper.evaluate(spliterator, true, generator);
+                Node.Builder<T> nb = Nodes.builder(-1, generator);
+                Sink<T> sink = opWrapSink(helper.getStreamAndOpFlags(), nb);
+                sink.begin(-1);
+                n.forEach(sink);
+                sink.end();
+                return nb.build();
+            }
+
+            @Override
+            Sink<T> opWrapSink(int flags, Sink<T> sink) {
+                Objects.requireNonNull(sink);
+
+                if (StreamOpFlag.DISTINCT.isKnown(flags)) {
+                    return sink;
+                } else {
+                    return new Sink.ChainedReference<T, T>(sink) {
+                        RecentlySeen<T> seen;
+
+                        @Override
+                        public void begin(long size) {
+                            seen = new RecentlySeen<>(window, timeout);
+                            downstream.begin(-1);
+                        }
+
+                        @Override
+                        public void end() {
+                            seen = null;
+                            downstream.end();
+                        }
+
+                        @Override
+                        public void accept(T t) {
+                            if (seen.add(t)) {
+                                downstream.accept(t);
+                            }
+                        }
+                    };
+                }
+            }
+        };
+    }
+
+    /**
+     * Checks the arguments of a windowed "distinct" operation.
+     */
+    static void checkWindow(int window, long timeout) {
+        if (window <= 0)
+            throw new IllegalArgumentException(Integer.toString(window));
+        if (timeout <= 0)
+            throw new IllegalArgumentException(Long.toString(timeout));
+    }
+
+    /**
+     * The elements seen by a windowed "distinct" operation, in order from
+     * least to most recently seen, each with the time it was last seen.  At
+     * most {@code window} elements are remembered, for at most
+     * {@code timeout} nanoseconds each.
+     */
+    static final class RecentlySeen<T> extends LinkedHashMap<T, Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int window;
+        private final long timeout;
+
+        RecentlySeen(int window, long timeout) {
+            super(Math.min(window, 1 << 10), 0.75f, true);
+            this.window = window;
+            this.timeout = timeout;
+        }
+
+        /**
+         * Records that the given element was seen, and returns true if it
+         * was not remembered, that is, it is not a duplicate within the
+         * window.
+         */
+        boolean add(T t) {
+            if (timeout == Long.MAX_VALUE) {
+                return put(t, 0L) == null;
+            }
+            long now = System.nanoTime();
+            // The least recently seen elements are first, so stop at the
+            // first one which has not expired
+            Iterator<Long> it = values().iterator();
+            while (it.hasNext() && now - it.next() > timeout) {
+                it.remove();
+            }
+            return put(t, now) == null;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<T, Long> eldest) {
+            return size() > window;
+        }
+    }
+
+    /**
+     * Appends the given element to the given list of distinct elements in
+     * natural order, unless it equals an element of the trailing run of
+     * elements which compare as equal to it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void addIfNotInRun(ArrayList<T> list, T t) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            T e = list.get(i);
+            if (((Comparable<? super T>) e).compareTo(t) != 0)
+                break;
+            if (e.equals(t))
+                return;
+        }
+        list.add(t);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void addAllIfNotInRun(ArrayList<T> left, ArrayList<T> right) {
+        int n = left.size(), i = 0;
+        if (n > 0) {
+            // only the leading run of right can contain elements of left
+            Comparable<? super T> last = (Comparable<? super T>) left.get(n - 1);
+            for (; i < right.size() && last.compareTo(right.get(i)) == 0; i++)
+                addIfNotInRun(left, right.get(i));
+        }
+        left.addAll(right.subList(i, right.size()));
+    }
 }
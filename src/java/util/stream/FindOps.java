@@ -136,6 +136,11 @@ final class FindOps {
             this.sinkSupplier = sinkSupplier;
         }
 
+        @Override
+        public String toString() {
+            return mustFindFirst ? "findFirst" : "findAny";
+        }
+
         @Override
         public int getOpFlags() {
             return StreamOpFlag.IS_SHORT_CIRCUIT | (mustFindFirst ? 0 : StreamOpFlag.NOT_ORDERED);
@@ -282,7 +287,7 @@ final class FindOps {
 
         @Override
         protected O doLeaf() {
-            O result = helper.wrapAndCopyInto(op.sinkSupplier.get(), spliterator).get();
+            O result = copyIntoCancellable(op.sinkSupplier.get(), -1).get();
             if (!op.mustFindFirst) {
                 if (result != null)
                     shortCircuit(result);
@@ -138,6 +138,11 @@ final class ForEachOps {
             this.ordered = ordered;
         }
 
+        @Override
+        public String toString() {
+            return ordered ? "forEachOrdered" : "forEach";
+        }
+
         // TerminalOp
 
         @Override
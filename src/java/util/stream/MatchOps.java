@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.function.DoublePredicate;
@@ -214,6 +215,11 @@ final class MatchOps {
             this.sinkSupplier = sinkSupplier;
         }
 
+        @Override
+        public String toString() {
+            return matchKind.name().toLowerCase(Locale.ROOT) + "Match";
+        }
+
         @Override
         public int getOpFlags() {
             return StreamOpFlag.IS_SHORT_CIRCUIT | StreamOpFlag.NOT_ORDERED;
@@ -303,7 +309,7 @@ final class MatchOps {
 
         @Override
         protected Boolean doLeaf() {
-            boolean b = helper.wrapAndCopyInto(op.sinkSupplier.get(), spliterator).getAndClearState();
+            boolean b = copyIntoCancellable(op.sinkSupplier.get(), -1).getAndClearState();
             if (b == op.matchKind.shortCircuitResult)
                 shortCircuit(b);
             return null;
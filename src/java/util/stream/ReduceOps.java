@@ -695,6 +695,11 @@ final class ReduceOps {
             inputShape = shape;
         }
 
+        @Override
+        public String toString() {
+            return "reduce";
+        }
+
         public abstract S makeSink();
 
         @Override
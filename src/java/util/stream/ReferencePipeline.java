@@ -30,6 +30,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -384,6 +385,16 @@ abstract class ReferencePipeline<P_IN, P_OUT>
         return DistinctOps.makeRef(this);
     }
 
+    @Override
+    public final Stream<P_OUT> distinct(int window) {
+        return DistinctOps.makeRef(this, window, Long.MAX_VALUE);
+    }
+
+    @Override
+    public final Stream<P_OUT> distinct(int window, long timeout, TimeUnit unit) {
+        return DistinctOps.makeRef(this, window, unit.toNanos(timeout));
+    }
+
     @Override
     public final Stream<P_OUT> sorted() {
         return SortedOps.makeRef(this);
@@ -609,8 +609,11 @@ final class SliceOps {
                 return nb.build();
             }
             else {
-                Node<P_OUT> node = helper.wrapAndCopyInto(helper.makeNodeBuilder(-1, generator),
-                                                          spliterator).build();
+                // No leaf can contribute more than the first offset + size
+                // elements of the result, so stop buffering at that point
+                long limit = targetSize >= 0 ? targetOffset + targetSize : -1;
+                Node<P_OUT> node = copyIntoCancellable(helper.makeNodeBuilder(-1, generator),
+                                                       limit).build();
                 thisNodeSize = node.count();
                 completed = true;
                 spliterator = null;
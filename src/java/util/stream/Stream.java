@@ -36,6 +36,7 @@ import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -358,6 +359,107 @@ public interface Stream<T> extends BaseStream<T, Stream<T>> {
      */
     Stream<T> distinct();
 
+    /**
+     * Returns a stream consisting of the elements of this stream, dropping
+     * each element that is equal (according to {@link Object#equals(Object)})
+     * to one of the {@code window} distinct elements most recently seen in
+     * encounter order.  Seeing an element again makes it the most recently
+     * seen.
+     *
+     * <p>Unlike {@link #distinct()}, which remembers every element seen, this
+     * operation uses memory bounded by {@code window}, which makes it usable
+     * for de-duplicating unbounded streams in which duplicates are expected to
+     * occur close together.  Duplicates further apart than the window are
+     * retained.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * The window is defined in terms of encounter order, so in parallel
+     * pipelines this operation acts as a full barrier on ordered streams.
+     *
+     * @implSpec
+     * The default implementation returns
+     * {@code distinct(window, Long.MAX_VALUE, TimeUnit.NANOSECONDS)}.
+     *
+     * @param window the maximum number of distinct elements remembered
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code window} is not positive
+     */
+    default Stream<T> distinct(int window) {
+        return distinct(window, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a stream consisting of the elements of this stream, dropping
+     * each element that is equal (according to {@link Object#equals(Object)})
+     * to one of the {@code window} distinct elements most recently seen in
+     * encounter order, if that element was last seen no more than
+     * {@code timeout} ago.  Seeing an element again makes it the most
+     * recently seen, and restarts its timeout.
+     *
+     * <p>This operation behaves as {@link #distinct(int)}, except that
+     * elements are also forgotten once they have not been seen for the given
+     * time, which is measured when this operation processes the elements.
+     * Like the window, the timeout can only let duplicates through; an
+     * element which is not equal to any element seen before is never
+     * dropped.
+     *
+     * <p>This is a <a href="package-summary.html#StreamOps">stateful
+     * intermediate operation</a>.
+     *
+     * @apiNote
+     * The window is defined in terms of encounter order, so in parallel
+     * pipelines this operation acts as a full barrier on ordered streams, and
+     * the times at which elements are seen are those at which they pass the
+     * barrier.
+     *
+     * @implSpec
+     * The default implementation obtains the {@link #spliterator() spliterator}
+     * of this stream and wraps it in a spliterator that filters elements
+     * through a bounded, access-ordered set of recently seen elements.  The
+     * wrapping spliterator only splits by buffering elements that have already
+     * been filtered, so the set is never accessed concurrently.
+     *
+     * @param window the maximum number of distinct elements remembered
+     * @param timeout the maximum time for which an element is remembered
+     * @param unit the time unit of the {@code timeout} argument
+     * @return the new stream
+     * @throws IllegalArgumentException if {@code window} or {@code timeout}
+     *         is not positive
+     * @throws NullPointerException if {@code unit} is null
+     */
+    default Stream<T> distinct(int window, long timeout, TimeUnit unit) {
+        long nanos = unit.toNanos(timeout);
+        DistinctOps.checkWindow(window, nanos);
+        Spliterator<T> s = spliterator();
+        DistinctOps.RecentlySeen<T> seen = new DistinctOps.RecentlySeen<>(window, nanos);
+        Spliterator<T> filtered = new Spliterators.AbstractSpliterator<T>(
+                s.estimateSize(), s.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED)) {
+            boolean emitted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                Objects.requireNonNull(action);
+                emitted = false;
+                while (!emitted && s.tryAdvance(t -> {
+                    if (seen.add(t)) {
+                        emitted = true;
+                        action.accept(t);
+                    }
+                })) { }
+                return emitted;
+            }
+
+            @Override
+            public Comparator<? super T> getComparator() {
+                return s.getComparator();
+            }
+        };
+        return StreamSupport.stream(filtered, isParallel()).onClose(this::close);
+    }
+
     /**
      * Returns a stream consisting of the elements of this stream, sorted
      * according to natural order.  If the elements of this stream are not
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2012, 2017, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.stream;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import sun.util.logging.PlatformLogger;
+
+/**
+ * Utility class for profiling the evaluation of stream pipelines.  Profiling
+ * is turned on or off based on whether the system property
+ * {@code org.openjdk.java.util.stream.profile} is considered {@code true}
+ * according to {@link Boolean#getBoolean(String)}.  It adds substantial
+ * per-element overhead and should normally be turned off for production use.
+ *
+ * <p>When enabled, every pipeline gets a {@link Profile} shared by all of its
+ * stages.  The sink chain built by {@link AbstractPipeline#wrapSink} has a
+ * counting sink inserted at the output of each stage, which records how many
+ * elements the stage emitted and the nanoseconds spent downstream of it; the
+ * time spent in a stage itself is the difference between the time downstream
+ * of its input and of its output.  {@link AbstractTask} records the shape of
+ * the fork/join tree, and the steal count of the pool is sampled around the
+ * evaluation; since other work may run in the same pool, that count is
+ * pool-wide.  When a terminal operation completes, normally or by throwing
+ * an exception, the profile is logged, using
+ * {@code PlatformLogger.getLogger("java.util.stream")}, at {@code INFO}
+ * level.
+ *
+ * <p>A pipeline evaluated while the same thread is evaluating another, for
+ * example the inner pipelines of {@code flatMap}, or a pipeline run by a
+ * lambda of another pipeline's leaf task, is not reported on its own; the
+ * enclosing pipeline's report counts it instead.  Nor is a pipeline
+ * evaluated while a report is being logged, such as by a logging handler,
+ * since its report would be logged recursively.
+ *
+ * <p>Pipelines traversed through {@link BaseStream#iterator()} or
+ * {@link BaseStream#spliterator()} are not reported, since their traversal
+ * is driven by the caller and has no point at which it is known to have
+ * ended.  Neither is the sequential {@code forEach} of a stream with no
+ * intermediate operations, which traverses the source directly.
+ *
+ * @apiNote
+ * Typical usage would be for pipeline code to do:
+ * <pre>{@code
+ *     if (StreamProfiler.ENABLED)
+ *         sink = StreamProfiler.wrap(stage, sink);
+ * }</pre>
+ *
+ * @since 1.8
+ */
+final class StreamProfiler {
+    private static final String PROFILE_PROPERTY = "org.openjdk.java.util.stream.profile";
+
+    /** Should pipelines be profiled? */
+    static final boolean ENABLED = AccessController.doPrivileged(
+            (PrivilegedAction<Boolean>) () -> Boolean.getBoolean(PROFILE_PROPERTY));
+
+    /**
+     * The profile of the pipeline whose evaluation, or leaf task, the current
+     * thread is running, or {@code REPORTING} while it logs a report.
+     */
+    private static final ThreadLocal<Profile> CURRENT = new ThreadLocal<>();
+    private static final Profile REPORTING = new Profile();
+
+    private StreamProfiler() { }
+
+    /**
+     * Makes the given profile the current thread's, for running a leaf task
+     * of its pipeline, and returns the previous one, to be restored by
+     * {@link #exit}.
+     */
+    static Profile enter(Profile profile) {
+        Profile previous = CURRENT.get();
+        CURRENT.set(profile);
+        return previous;
+    }
+
+    /**
+     * Restores the profile returned by {@link #enter}.
+     */
+    static void exit(Profile previous) {
+        if (previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * Returns a sink that records the elements passed to {@code sink}, and
+     * the time spent in it, against the given stage.
+     *
+     * @param stage the stage whose output {@code sink} receives
+     * @param sink the downstream sink
+     * @return the counting sink
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static Sink wrap(Stage stage, Sink sink) {
+        return new ProfilingSink(stage, sink);
+    }
+
+    /**
+     * Returns the profile of the pipeline evaluated by the given helper, or
+     * {@code null} if there is none.
+     */
+    static Profile profileOf(PipelineHelper<?> helper) {
+        return (helper instanceof AbstractPipeline)
+               ? ((AbstractPipeline<?, ?, ?>) helper).profileStage().profile
+               : null;
+    }
+
+    /**
+     * The profile of a single pipeline, from its source through to its
+     * terminal operation.
+     */
+    static final class Profile {
+        final List<Stage> stages = new ArrayList<>();
+        final LongAdder splits = new LongAdder();
+        final LongAdder leaves = new LongAdder();
+        final LongAccumulator maxLeafDepth = new LongAccumulator(Math::max, 0L);
+        final LongAccumulator minLeafSize = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator maxLeafSize = new LongAccumulator(Math::max, 0L);
+        final LongAdder nestedPipelines = new LongAdder();
+        private boolean nested;
+        private ForkJoinPool pool;
+        private long startSteals;
+        private long startNanos;
+
+        Stage addStage(AbstractPipeline<?, ?, ?> pipeline) {
+            Stage s = new Stage(this, stages.size(), pipeline.getClass().getName());
+            stages.add(s);
+            return s;
+        }
+
+        /**
+         * Records a leaf task of the given depth in the fork/join tree whose
+         * spliterator was estimated to hold the given number of elements.
+         */
+        void leaf(int depth, long sizeEstimate) {
+            leaves.increment();
+            maxLeafDepth.accumulate(depth);
+            minLeafSize.accumulate(sizeEstimate);
+            maxLeafSize.accumulate(sizeEstimate);
+        }
+
+        void begin(boolean parallel) {
+            Profile current = CURRENT.get();
+            if (current != null) {
+                nested = true;
+                current.nestedPipelines.increment();
+                return;
+            }
+            CURRENT.set(this);
+            if (parallel) {
+                pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool()
+                                                     : ForkJoinPool.commonPool();
+                startSteals = pool.getStealCount();
+            }
+            startNanos = System.nanoTime();
+        }
+
+        void end(String terminal) {
+            if (nested)
+                return;
+            long elapsed = System.nanoTime() - startNanos;
+            // Pipelines evaluated while logging are not reported
+            CURRENT.set(REPORTING);
+            try {
+                PlatformLogger.getLogger("java.util.stream").info(report(terminal, elapsed));
+            } finally {
+                CURRENT.remove();
+            }
+        }
+
+        String report(String terminal, long elapsedNanos) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Stream pipeline profile (").append(terminal)
+              .append(pool != null ? ", parallel" : ", sequential")
+              .append("): ").append(millis(elapsedNanos)).append(" ms");
+            long upstreamNanos = -1L;
+            for (Stage s : stages) {
+                long nanos = s.nanos.sum();
+                sb.append("\n  ").append(s.index).append(' ').append(s.name)
+                  .append(": out=").append(s.elements.sum());
+                if (upstreamNanos >= 0L)
+                    sb.append(", self=").append(millis(upstreamNanos - nanos)).append(" ms");
+                sb.append(", downstream=").append(millis(nanos)).append(" ms");
+                upstreamNanos = nanos;
+            }
+            if (pool != null) {
+                sb.append("\n  tasks: leaves=").append(leaves.sum())
+                  .append(", splits=").append(splits.sum())
+                  .append(", maxDepth=").append(maxLeafDepth.get());
+                if (leaves.sum() > 0L)
+                    sb.append(", leafSize=[").append(minLeafSize.get())
+                      .append("..").append(maxLeafSize.get()).append(']');
+                sb.append(", pool-wide steals=").append(pool.getStealCount() - startSteals);
+            }
+            long n = nestedPipelines.sum();
+            if (n > 0L)
+                sb.append("\n  nested pipelines: ").append(n);
+            return sb.toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.3f", nanos / 1e6d);
+        }
+    }
+
+    /**
+     * Counters for the output of a single stage.
+     */
+    static final class Stage {
+        final Profile profile;
+        final int index;
+        final String name;
+        final LongAdder elements = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Stage(Profile profile, int index, String name) {
+            this.profile = profile;
+            this.index = index;
+            this.name = name;
+        }
+    }
+
+    /**
+     * A sink of any shape that forwards to a downstream sink, counting the
+     * elements and measuring the time spent downstream.  It implements all
+     * primitive consumer types so that the shape-specific pipelines adapt it
+     * without boxing.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class ProfilingSink
+            implements Sink<Object>, IntConsumer, LongConsumer, DoubleConsumer {
+        private final Stage stage;
+        private final Sink downstream;
+
+        ProfilingSink(Stage stage, Sink downstream) {
+            this.stage = stage;
+            this.downstream = downstream;
+        }
+
+        // Stateful stages push their elements downstream from end(), so
+        // begin() and end() are timed too, but not counted
+
+        @Override
+        public void begin(long size) {
+            long start = System.nanoTime();
+            downstream.begin(size);
+            stage.nanos.add(System.nanoTime() - start);
+        }
+
+        @Override
+        public void end() {
+            long start = System.nanoTime();
+            downstream.end();
+            stage.nanos.add(System.nanoTime() - start);
+        }
+
+        @Override
+        public boolean cancellationRequested() {
+            return downstream.cancellationRequested();
+        }
+
+        @Override
+        public void accept(Object t) {
+            long start = System.nanoTime();
+            downstream.accept(t);
+            record(start);
+        }
+
+        @Override
+        public void accept(int value) {
+            long start = System.nanoTime();
+            downstream.accept(value);
+            record(start);
+        }
+
+        @Override
+        public void accept(long value) {
+            long start = System.nanoTime();
+            downstream.accept(value);
+            record(start);
+        }
+
+        @Override
+        public void accept(double value) {
+            long start = System.nanoTime();
+            downstream.accept(value);
+            record(start);
+        }
+
+        private void record(long start) {
+            stage.nanos.add(System.nanoTime() - start);
+            stage.elements.increment();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/*
+ * @test
+ * @summary Quantiles of values whose range grows past the bucket limit
+ * @run main BucketOverflow
+ */
+
+import java.util.QuantileSummaryStatistics;
+
+public class BucketOverflow {
+    public static void main(String[] args) {
+        double accuracy = 0.01;
+        double gamma = (1 + accuracy) / (1 - accuracy);
+
+        // values in 100 adjacent buckets, then one 2100 buckets higher, so
+        // that the sketch has to merge its lowest buckets
+        QuantileSummaryStatistics stats = new QuantileSummaryStatistics(accuracy);
+        for (int i = 0; i < 100; i++)
+            stats.accept(Math.pow(gamma, i));
+        double high = Math.pow(gamma, 2100);
+        stats.accept(high);
+        check(stats, high);
+
+        // the same the other way round: the range grows downwards
+        stats = new QuantileSummaryStatistics(accuracy);
+        stats.accept(high);
+        for (int i = 99; i >= 0; i--)
+            stats.accept(Math.pow(gamma, i));
+        check(stats, high);
+
+        // and for negative values, combined from two halves
+        QuantileSummaryStatistics low = new QuantileSummaryStatistics(accuracy);
+        for (int i = 0; i < 100; i++)
+            low.accept(-Math.pow(gamma, i));
+        QuantileSummaryStatistics top = new QuantileSummaryStatistics(accuracy);
+        top.accept(-high);
+        top.combine(low);
+        if (!close(top.getQuantile(0.0), -high, accuracy))
+            throw new AssertionError("min quantile: " + top.getQuantile(0.0));
+        checkRange(top);
+
+        // a range spanning many more buckets than the limit
+        stats = new QuantileSummaryStatistics(accuracy);
+        for (int i = 0; i < 10000; i++)
+            stats.accept(Math.pow(gamma, i));
+        checkRange(stats);
+        double q = stats.getQuantile(0.99);
+        if (!close(q, Math.pow(gamma, 9899), accuracy))
+            throw new AssertionError("0.99 quantile: " + q);
+    }
+
+    static void check(QuantileSummaryStatistics stats, double high) {
+        checkRange(stats);
+        double max = stats.getQuantile(1.0);
+        if (!close(max, high, stats.getRelativeAccuracy()))
+            throw new AssertionError("max quantile: " + max);
+    }
+
+    static void checkRange(QuantileSummaryStatistics stats) {
+        for (int i = 0; i <= 100; i++) {
+            double q = stats.getQuantile(i / 100.0);
+            if (!(q >= stats.getMin() && q <= stats.getMax()))
+                throw new AssertionError("quantile " + i + "% out of range: " + q);
+        }
+    }
+
+    static boolean close(double actual, double expected, double accuracy) {
+        return Math.abs(actual - expected) <= accuracy * Math.abs(expected) * 1.0001;
+    }
+}